@@ -21,6 +21,9 @@ import org.apache.dubbo.common.io.Bytes;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -66,6 +69,23 @@ public class CoderUtil {
         return hash;
     }
 
+    /**
+     * 64-bit fingerprint of the input, formatted the same way as {@link #MD5_16bit(String)}
+     * but much cheaper to compute and safe to call concurrently.
+     */
+    public static String hash64(String input) {
+        if (input == null || input.length() == 0) {
+            return null;
+        }
+        long hash = Hashing.farmHashFingerprint64().hashString(input, StandardCharsets.UTF_8).asLong();
+        char[] r = new char[16];
+        for (int i = r.length - 1; i >= 0; i--) {
+            r[i] = hexCode[(int) (hash & 0xF)];
+            hash >>>= 4;
+        }
+        return new String(r);
+    }
+
     private static String convertToString(byte[] data) {
         StringBuilder r = new StringBuilder(data.length * 2);
         for (byte b : data) {
@@ -82,6 +82,12 @@ public class Constants {
     public static final String COLON = ":";
     public static final String MESH_RULE_SUFFIX = ".MESHAPPRULE";
     public static final String DEFAULT_MAPPING_GROUP = "mapping";
+    public static final String MIRROR_KEY = "mirror";
+    public static final String MIRROR_MAX_BYTES_KEY = "mirror.max-bytes";
+    public static final String MIRROR_LAZY_BYTES_KEY = "mirror.lazy-bytes";
+    public static final String MAPPING_READ_BATCH_SIZE_KEY = "mapping.read.batch.size";
+    public static final String MAPPING_PARSE_THREADS_KEY = "mapping.parse.threads";
+    public static final String MAPPING_LOAD_TIMEOUT_KEY = "mapping.load.timeout";
     static {
         CONFIGS.add(WEIGHT);
         CONFIGS.add(BALANCING);
@@ -24,6 +24,7 @@ import org.apache.dubbo.admin.registry.mapping.AdminMappingListener;
 import org.apache.dubbo.admin.registry.mapping.ServiceMapping;
 import org.apache.dubbo.admin.registry.mapping.impl.NoOpServiceMapping;
 import org.apache.dubbo.admin.registry.metadata.MetaDataCollector;
+import org.apache.dubbo.admin.registry.metadata.impl.CachingMetaDataCollector;
 import org.apache.dubbo.admin.registry.metadata.impl.NoOpMetadataCollector;
 import org.apache.dubbo.admin.service.impl.InstanceRegistryCache;
 
@@ -32,18 +33,20 @@ import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
-import org.apache.dubbo.metadata.MappingListener;
 import org.apache.dubbo.registry.Registry;
 import org.apache.dubbo.registry.RegistryFactory;
 import org.apache.dubbo.registry.RegistryService;
 import org.apache.dubbo.registry.client.ServiceDiscovery;
 import org.apache.dubbo.registry.client.ServiceDiscoveryFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
 
 import java.util.Arrays;
+import java.util.Map;
 
 import static org.apache.dubbo.common.constants.CommonConstants.CLUSTER_KEY;
 import static org.apache.dubbo.registry.client.ServiceDiscoveryFactory.getExtension;
@@ -88,17 +91,56 @@ public class ConfigCenter {
     @Value("${admin.config-center.password:}")
     private String password;
 
+    @Value("${admin.mapping.register-threads:8}")
+    private int mappingRegisterThreads;
+    @Value("${admin.mapping.read-batch-size:256}")
+    private int mappingReadBatchSize;
+    @Value("${admin.mapping.parse-threads:4}")
+    private int mappingParseThreads;
+    @Value("${admin.mapping.load-timeout-seconds:60}")
+    private long mappingLoadTimeoutSeconds;
+
+    @Value("${admin.bootstrap.threads:4}")
+    private int bootstrapThreads;
+
+    @Value("${admin.metadata-report.cache.enabled:true}")
+    private boolean metadataCacheEnabled;
+    @Value("${admin.metadata-report.cache.max-size:10000}")
+    private long metadataCacheMaxSize;
+    @Value("${admin.metadata-report.cache.ttl-millis:300000}")
+    private long metadataCacheTtlMillis;
+    @Value("${admin.metadata-report.cache.negative-ttl-millis:30000}")
+    private long metadataCacheNegativeTtlMillis;
+    @Value("${admin.metadata-report.mirror.enabled:false}")
+    private boolean metadataMirrorEnabled;
+    @Value("${admin.metadata-report.mirror.max-bytes:67108864}")
+    private long metadataMirrorMaxBytes;
+    @Value("${admin.metadata-report.mirror.lazy-bytes:65536}")
+    private int metadataMirrorLazyBytes;
+
     private static final Logger logger = LoggerFactory.getLogger(ConfigCenter.class);
 
     private URL configCenterUrl;
     private URL registryUrl;
     private URL metadataUrl;
 
+    private ConfigCenterBootstrap bootstrap;
+
+    private ServiceMapping serviceMapping;
+
+    private AdminMappingListener mappingListener;
+
     /*
      * generate dynamic configuration client
      */
     @Bean("governanceConfiguration")
     GovernanceConfiguration getDynamicConfiguration() {
+        GovernanceConfiguration dynamicConfiguration = getBootstrap().join("governanceConfiguration", this::createDynamicConfiguration);
+        connectClients();
+        return dynamicConfiguration;
+    }
+
+    private GovernanceConfiguration createDynamicConfiguration() {
         GovernanceConfiguration dynamicConfiguration = null;
 
         if (StringUtils.isNotEmpty(configCenter)) {
@@ -140,6 +182,10 @@ public class ConfigCenter {
     @Bean("dubboRegistry")
     @DependsOn("governanceConfiguration")
     Registry getRegistry() {
+        return getBootstrap().join("dubboRegistry", this::createRegistry);
+    }
+
+    private Registry createRegistry() {
         Registry registry = null;
         if (registryUrl == null) {
             if (StringUtils.isBlank(registryAddress)) {
@@ -158,6 +204,10 @@ public class ConfigCenter {
     @Bean("metaDataCollector")
     @DependsOn("governanceConfiguration")
     MetaDataCollector getMetadataCollector() {
+        return getBootstrap().join("metaDataCollector", this::createMetadataCollector);
+    }
+
+    private MetaDataCollector createMetadataCollector() {
         MetaDataCollector metaDataCollector = new NoOpMetadataCollector();
         if (metadataUrl == null) {
             if (StringUtils.isNotEmpty(metadataAddress)) {
@@ -167,8 +217,19 @@ public class ConfigCenter {
         }
         if (metadataUrl != null) {
             metaDataCollector = ExtensionLoader.getExtensionLoader(MetaDataCollector.class).getExtension(metadataUrl.getProtocol());
-            metaDataCollector.setUrl(metadataUrl);
+            URL collectorUrl = metadataUrl;
+            if (metadataMirrorEnabled) {
+                collectorUrl = collectorUrl.addParameterIfAbsent(Constants.MIRROR_KEY, Boolean.TRUE.toString())
+                        .addParameterIfAbsent(Constants.MIRROR_MAX_BYTES_KEY, String.valueOf(metadataMirrorMaxBytes))
+                        .addParameterIfAbsent(Constants.MIRROR_LAZY_BYTES_KEY, String.valueOf(metadataMirrorLazyBytes));
+            }
+            metaDataCollector.setUrl(collectorUrl);
             metaDataCollector.init();
+            if (metadataCacheEnabled) {
+                metaDataCollector = new CachingMetaDataCollector(metaDataCollector, Math.max(1, metadataCacheMaxSize),
+                        Math.max(0, metadataCacheTtlMillis), Math.max(0, metadataCacheNegativeTtlMillis));
+                metaDataCollector.init();
+            }
         } else {
             logger.warn("you are using dubbo.registry.address, which is not recommend, please refer to: https://github.com/apache/incubator-dubbo-admin/wiki/Dubbo-Admin-configuration");
         }
@@ -178,7 +239,11 @@ public class ConfigCenter {
 
     @Bean(destroyMethod = "destroy")
     @DependsOn("dubboRegistry")
-    ServiceDiscovery getServiceDiscoveryRegistry() throws Exception {
+    ServiceDiscovery getServiceDiscoveryRegistry() {
+        return getBootstrap().join("serviceDiscovery", this::createServiceDiscovery);
+    }
+
+    private ServiceDiscovery createServiceDiscovery() throws Exception {
         URL registryURL = registryUrl.setPath(RegistryService.class.getName());
         ServiceDiscoveryFactory factory = getExtension(registryURL);
         ServiceDiscovery serviceDiscovery = factory.getServiceDiscovery(registryURL);
@@ -186,20 +251,85 @@ public class ConfigCenter {
         return serviceDiscovery;
     }
 
-    @Bean
+    /**
+     * listens the instances of the apps found by the service mapping, its register pool is shut down with the context
+     */
+    @Bean(destroyMethod = "destroy")
+    AdminMappingListener getMappingListener(ServiceDiscovery serviceDiscovery, InstanceRegistryCache instanceRegistryCache) {
+        return new AdminMappingListener(serviceDiscovery, instanceRegistryCache, mappingRegisterThreads);
+    }
+
+    @Bean(destroyMethod = "destroy")
     @DependsOn("metaDataCollector")
-    ServiceMapping getServiceMapping(ServiceDiscovery serviceDiscovery, InstanceRegistryCache instanceRegistryCache) {
-        ServiceMapping serviceMapping = new NoOpServiceMapping();
+    ServiceMapping getServiceMapping(AdminMappingListener mappingListener) {
+        ServiceMapping serviceMapping = getBootstrap().join("serviceMapping", this::createServiceMapping);
+        if (metadataUrl != null) {
+            serviceMapping.addMappingListener(mappingListener);
+        }
+        this.serviceMapping = serviceMapping;
+        this.mappingListener = mappingListener;
+        return serviceMapping;
+    }
+
+    private ServiceMapping createServiceMapping() {
         if (metadataUrl == null) {
-            return serviceMapping;
+            return new NoOpServiceMapping();
         }
-        MappingListener mappingListener = new AdminMappingListener(serviceDiscovery, instanceRegistryCache);
-        serviceMapping = ExtensionLoader.getExtensionLoader(ServiceMapping.class).getExtension(metadataUrl.getProtocol());
-        serviceMapping.addMappingListener(mappingListener);
-        serviceMapping.init(metadataUrl);
+        ServiceMapping serviceMapping = ExtensionLoader.getExtensionLoader(ServiceMapping.class).getExtension(metadataUrl.getProtocol());
+        serviceMapping.init(metadataUrl.addParameter(Constants.MAPPING_READ_BATCH_SIZE_KEY, mappingReadBatchSize)
+                .addParameter(Constants.MAPPING_PARSE_THREADS_KEY, mappingParseThreads)
+                .addParameter(Constants.MAPPING_LOAD_TIMEOUT_KEY, mappingLoadTimeoutSeconds));
         return serviceMapping;
     }
 
+    /**
+     * the full scan of the mappings is deferred until the application is ready, it runs along with the registry subscription
+     */
+    @EventListener(classes = ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (serviceMapping != null) {
+            getBootstrap().runAsync("serviceMappingListenerAll", () -> {
+                serviceMapping.listenerAll();
+                mappingListener.markScanned();
+            });
+        }
+        getBootstrap().shutdown();
+    }
+
+    /**
+     * @return bootstrap phase --> elapsed millis
+     */
+    public Map<String, Long> getBootstrapTimings() {
+        return getBootstrap().getTimings();
+    }
+
+    /**
+     * connect the clients which only depend on the resolved urls concurrently,
+     * the bean methods take the connected clients or fail with the connecting error
+     */
+    private void connectClients() {
+        if (registryUrl == null && StringUtils.isNotBlank(registryAddress)) {
+            registryUrl = formUrl(registryAddress, registryGroup, registryNameSpace, username, password);
+        }
+        if (metadataUrl == null && StringUtils.isNotEmpty(metadataAddress)) {
+            metadataUrl = formUrl(metadataAddress, metadataGroup, metadataGroupNameSpace, username, password)
+                    .addParameter(CLUSTER_KEY, cluster);
+        }
+        if (registryUrl != null) {
+            getBootstrap().start("dubboRegistry", this::createRegistry);
+            getBootstrap().start("serviceDiscovery", this::createServiceDiscovery);
+        }
+        getBootstrap().start("metaDataCollector", this::createMetadataCollector);
+        getBootstrap().start("serviceMapping", this::createServiceMapping);
+    }
+
+    private synchronized ConfigCenterBootstrap getBootstrap() {
+        if (bootstrap == null) {
+            bootstrap = new ConfigCenterBootstrap(bootstrapThreads);
+        }
+        return bootstrap;
+    }
+
     public static String removerConfigKey(String properties) {
         String[] split = properties.split("=");
         String[] address = new String[split.length - 1];
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.config;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * runs the bootstrap phases of {@link ConfigCenter}, the clients which do not depend on each other are connected
+ * concurrently, and the time of each phase is recorded
+ */
+class ConfigCenterBootstrap {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigCenterBootstrap.class);
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> phases = new ConcurrentHashMap<>();
+
+    /**
+     * phase --> elapsed millis, in order of completion
+     */
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private final ThreadPoolExecutor executor;
+
+    ConfigCenterBootstrap(int threads) {
+        executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-bootstrap-%d").daemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * start a phase in the background, unless it is already started
+     */
+    void start(String phase, Callable<?> task) {
+        if (executor.isShutdown() || phases.containsKey(phase)) {
+            return;
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (phases.putIfAbsent(phase, future) == null) {
+            executor.execute(() -> complete(phase, task, future));
+        }
+    }
+
+    /**
+     * take the result of a phase started by {@link #start}, or run it in the caller thread if it is not started.
+     * a failure of the phase is thrown to the caller
+     */
+    @SuppressWarnings("unchecked")
+    <T> T join(String phase, Callable<T> task) {
+        CompletableFuture<Object> future = phases.remove(phase);
+        if (future == null) {
+            future = new CompletableFuture<>();
+            complete(phase, task, future);
+        }
+        try {
+            return (T) future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to bootstrap " + phase, e.getCause());
+        }
+    }
+
+    /**
+     * run a phase in the background without waiting for it
+     */
+    void runAsync(String phase, Runnable task) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.execute(() -> complete(phase, () -> {
+            task.run();
+            return null;
+        }, new CompletableFuture<>()));
+    }
+
+    /**
+     * stop accepting phases, the running ones are completed
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    Map<String, Long> getTimings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+
+    private void complete(String phase, Callable<?> task, CompletableFuture<Object> future) {
+        long start = System.currentTimeMillis();
+        try {
+            future.complete(task.call());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            logger.warn("Failed to bootstrap " + phase, t);
+        } finally {
+            long elapsed = System.currentTimeMillis() - start;
+            timings.put(phase, elapsed);
+            logger.info("Bootstrap phase " + phase + " took " + elapsed + "ms");
+        }
+    }
+}
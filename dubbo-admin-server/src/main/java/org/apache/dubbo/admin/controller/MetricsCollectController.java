@@ -17,111 +17,71 @@
 
 package org.apache.dubbo.admin.controller;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-
 import org.apache.dubbo.admin.annotation.Authority;
-import org.apache.dubbo.admin.common.util.Constants;
-import org.apache.dubbo.admin.common.util.Tool;
-import org.apache.dubbo.admin.model.domain.Consumer;
-import org.apache.dubbo.admin.model.domain.Provider;
+import org.apache.dubbo.admin.common.exception.ParamValidationException;
 import org.apache.dubbo.admin.model.dto.MetricDTO;
+import org.apache.dubbo.admin.model.dto.MetricSeriesDTO;
 import org.apache.dubbo.admin.model.dto.RelationDTO;
-import org.apache.dubbo.admin.service.ConsumerService;
 import org.apache.dubbo.admin.service.MetricsService;
-import org.apache.dubbo.admin.service.ProviderService;
-import org.apache.dubbo.admin.service.impl.MetrcisCollectServiceImpl;
-import org.apache.dubbo.metadata.definition.model.FullServiceDefinition;
-import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
+import org.apache.dubbo.admin.service.impl.MetricsCollector;
+import org.apache.dubbo.admin.service.impl.MetricsScraper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+
 @Authority(needLogin = true)
 @RestController
 @RequestMapping("/api/{env}/metrics")
 public class MetricsCollectController {
 
-    private ProviderService providerService;
-    private ConsumerService consumerService;
-    private MetricsService metricsService;
+    private final MetricsService metricsService;
+    private final MetricsCollector metricsCollector;
+    private final MetricsScraper metricsScraper;
 
     @Autowired
-    public MetricsCollectController(ProviderService providerService, ConsumerService consumerService, MetricsService metricsService) {
-        this.providerService = providerService;
-        this.consumerService = consumerService;
+    public MetricsCollectController(MetricsService metricsService, MetricsCollector metricsCollector, MetricsScraper metricsScraper) {
         this.metricsService = metricsService;
+        this.metricsCollector = metricsCollector;
+        this.metricsScraper = metricsScraper;
     }
 
     @RequestMapping(method = RequestMethod.POST)
     public String metricsCollect(@RequestParam String group, @PathVariable String env) {
-        MetrcisCollectServiceImpl service = new MetrcisCollectServiceImpl();
-        service.setUrl("dubbo://127.0.0.1:20880?scope=remote&cache=true");
-
-        return service.invoke(group).toString();
+        return metricsCollector.invoke("dubbo://127.0.0.1:20880?scope=remote&cache=true", group).toString();
     }
 
     @RequestMapping(value = "/relation", method = RequestMethod.GET)
-    public RelationDTO getApplicationRelation(){
+    public RelationDTO getApplicationRelation(WebRequest request) {
+        // read the version before the relation, so a concurrent change never hides behind a newer etag
+        long version = metricsService.getApplicationRelationVersion();
+        if (request.checkNotModified(String.valueOf(version))) {
+            return null;
+        }
         return metricsService.getApplicationRelation();
     }
 
-    private String getOnePortMessage(String group, String ip, String port, String protocol) {
-        MetrcisCollectServiceImpl metrcisCollectService = new MetrcisCollectServiceImpl();
-        metrcisCollectService.setUrl(protocol + "://" + ip + ":" + port +"?scope=remote&cache=true");
-        String res = metrcisCollectService.invoke(group).toString();
-        return res;
-    }
-
     @RequestMapping( value = "/ipAddr", method = RequestMethod.GET)
     public List<MetricDTO> searchService(@RequestParam String ip, @RequestParam String group, @PathVariable String env) {
-
-        Map<String, String> configMap = new HashMap<>();
-        addMetricsConfigToMap(configMap, ip);
-
-//         default value
-        if (configMap.size() <= 0) {
-            configMap.put("20880", "dubbo");
-        }
-        List<MetricDTO> metricDTOS = new ArrayList<>();
-        for (String port : configMap.keySet()) {
-            String protocol = configMap.get(port);
-            String res = getOnePortMessage(group, ip, port, protocol);
-            metricDTOS.addAll(new Gson().fromJson(res, new TypeToken<List<MetricDTO>>(){}.getType()));
-        }
-
-        return metricDTOS;
+        return metricsCollector.collect(Collections.singletonList(ip), group).get(ip);
     }
 
-    protected void addMetricsConfigToMap(Map<String, String> configMap, String ip) {
-        List<Provider> providers = providerService.findByAddress(ip);
-        if (providers.size() > 0) {
-            Provider provider = providers.get(0);
-            String service = provider.getService();
-            MetadataIdentifier providerIdentifier = new MetadataIdentifier(Tool.getInterface(service), Tool.getVersion(service), Tool.getGroup(service),
-                    Constants.PROVIDER_SIDE, provider.getApplication());
-            String metaData = providerService.getProviderMetaData(providerIdentifier);
-            FullServiceDefinition providerServiceDefinition = new Gson().fromJson(metaData, FullServiceDefinition.class);
-            Map<String, String> parameters = providerServiceDefinition.getParameters();
-            configMap.put(parameters.get(Constants.METRICS_PORT), parameters.get(Constants.METRICS_PROTOCOL));
-        } else {
-            List<Consumer> consumers = consumerService.findByAddress(ip);
-            if (consumers.size() > 0) {
-                Consumer consumer = consumers.get(0);
-                String service = consumer.getService();
-                MetadataIdentifier consumerIdentifier = new MetadataIdentifier(Tool.getInterface(service), Tool.getVersion(service), Tool.getGroup(service),
-                        Constants.CONSUMER_SIDE, consumer.getApplication());
-                String metaData = consumerService.getConsumerMetadata(consumerIdentifier);
-                Map<String, String> consumerParameters = new Gson().fromJson(metaData, Map.class);
-                configMap.put(consumerParameters.get(Constants.METRICS_PORT), consumerParameters.get(Constants.METRICS_PROTOCOL));
-            }
+    @RequestMapping(value = "/history", method = RequestMethod.GET)
+    public List<MetricSeriesDTO> history(@RequestParam String ip, @RequestParam long from, @RequestParam(required = false) Long to,
+                                         @RequestParam(defaultValue = "60") int points, @PathVariable String env) {
+        long end = to == null ? System.currentTimeMillis() : to;
+        if (points <= 0) {
+            throw new ParamValidationException("points must be positive");
+        }
+        if (from >= end) {
+            throw new ParamValidationException("from must be before to");
         }
+        return metricsScraper.query(ip, from, end, points);
     }
 }
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.controller;
+
+import org.apache.dubbo.admin.annotation.Authority;
+import org.apache.dubbo.admin.service.impl.RegistryChangeFeed;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Authority(needLogin = true)
+@RestController
+@RequestMapping("/api/{env}/changes")
+public class RegistryChangeController {
+
+    private final RegistryChangeFeed registryChangeFeed;
+
+    @Autowired
+    public RegistryChangeController(RegistryChangeFeed registryChangeFeed) {
+        this.registryChangeFeed = registryChangeFeed;
+    }
+
+    /**
+     * stream the registry changes, a reconnecting EventSource resumes from its Last-Event-ID
+     */
+    @RequestMapping(method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestParam(required = false) Long since,
+                              @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                              @PathVariable String env) {
+        return registryChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+}
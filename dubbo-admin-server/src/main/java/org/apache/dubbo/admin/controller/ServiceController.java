@@ -17,7 +17,6 @@
 
 package org.apache.dubbo.admin.controller;
 
-import com.google.gson.Gson;
 
 import com.google.gson.JsonParseException;
 import org.apache.dubbo.admin.annotation.Authority;
@@ -30,11 +29,10 @@ import org.apache.dubbo.admin.model.dto.ServiceDTO;
 import org.apache.dubbo.admin.model.dto.ServiceDetailDTO;
 import org.apache.dubbo.admin.service.ConsumerService;
 import org.apache.dubbo.admin.service.ProviderService;
-import org.apache.dubbo.metadata.definition.model.FullServiceDefinition;
+import org.apache.dubbo.admin.service.impl.ServiceDefinitionCache;
 import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -54,13 +52,14 @@ public class ServiceController {
 
     private final ProviderService providerService;
     private final ConsumerService consumerService;
-    private final Gson gson;
+    private final ServiceDefinitionCache serviceDefinitionCache;
 
     @Autowired
-    public ServiceController(ProviderService providerService, ConsumerService consumerService) {
+    public ServiceController(ProviderService providerService, ConsumerService consumerService,
+                             ServiceDefinitionCache serviceDefinitionCache) {
         this.providerService = providerService;
         this.consumerService = consumerService;
-        this.gson = new Gson();
+        this.serviceDefinitionCache = serviceDefinitionCache;
     }
 
     @RequestMapping(value = "/service", method = RequestMethod.GET)
@@ -68,17 +67,7 @@ public class ServiceController {
                                           @RequestParam String filter,
                                           @PathVariable String env,
                                           Pageable pageable) {
-        final Set<ServiceDTO> serviceDTOS = providerService.getServiceDTOS(pattern, filter, env);
-
-        final int total = serviceDTOS.size();
-        final List<ServiceDTO> content =
-                serviceDTOS.stream()
-                        .skip(pageable.getOffset())
-                        .limit(pageable.getPageSize())
-                        .collect(Collectors.toList());
-
-        final Page<ServiceDTO> page = new PageImpl<>(content, pageable, total);
-        return page;
+        return providerService.getServiceDTOS(pattern, filter, env, pageable);
     }
 
     @RequestMapping(value = "/service/{service}", method = RequestMethod.GET)
@@ -106,13 +95,7 @@ public class ServiceController {
                 // So the json conversion will fail.
                 String release = providerService.findVersionInApplication(application);
                 // serialization compatible 2.x version
-                if (release.startsWith("2")) {
-                    org.apache.dubbo.admin.model.domain.FullServiceDefinition serviceDefinition = gson.fromJson(metadata, org.apache.dubbo.admin.model.domain.FullServiceDefinition.class);
-                    serviceDetailDTO.setMetadata(serviceDefinition);
-                } else {
-                    FullServiceDefinition serviceDefinition = gson.fromJson(metadata, FullServiceDefinition.class);
-                    serviceDetailDTO.setMetadata(serviceDefinition);
-                }
+                serviceDetailDTO.setMetadata(serviceDefinitionCache.getDefinition(metadata, release.startsWith("2")));
             } catch (JsonParseException e) {
                 throw new VersionValidationException("dubbo 2.6 does not support metadata");
             }
@@ -17,19 +17,15 @@
 
 package org.apache.dubbo.admin.controller;
 
-import com.google.gson.Gson;
 import org.apache.dubbo.admin.common.util.Constants;
 
 import org.apache.dubbo.admin.annotation.Authority;
 import org.apache.dubbo.admin.common.util.ConvertUtil;
-import org.apache.dubbo.admin.common.util.ServiceTestUtil;
-import org.apache.dubbo.admin.common.util.ServiceTestV3Util;
 import org.apache.dubbo.admin.model.domain.MethodMetadata;
 import org.apache.dubbo.admin.model.dto.ServiceTestDTO;
 import org.apache.dubbo.admin.service.ProviderService;
 import org.apache.dubbo.admin.service.impl.GenericServiceImpl;
-import org.apache.dubbo.metadata.definition.model.FullServiceDefinition;
-import org.apache.dubbo.metadata.definition.model.MethodDefinition;
+import org.apache.dubbo.admin.service.impl.ServiceDefinitionCache;
 import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -38,7 +34,6 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
 import java.util.Map;
 @Authority(needLogin = true)
 @RestController
@@ -46,10 +41,13 @@ import java.util.Map;
 public class ServiceTestController {
     private final GenericServiceImpl genericService;
     private final ProviderService providerService;
+    private final ServiceDefinitionCache serviceDefinitionCache;
 
-    public ServiceTestController(GenericServiceImpl genericService, ProviderService providerService) {
+    public ServiceTestController(GenericServiceImpl genericService, ProviderService providerService,
+                                 ServiceDefinitionCache serviceDefinitionCache) {
         this.genericService = genericService;
         this.providerService = providerService;
+        this.serviceDefinitionCache = serviceDefinitionCache;
     }
 
     @RequestMapping(method = RequestMethod.POST)
@@ -71,33 +69,8 @@ public class ServiceTestController {
         String metadata = providerService.getProviderMetaData(identifier);
         MethodMetadata methodMetadata = null;
         if (metadata != null) {
-            Gson gson = new Gson();
             String release = providerService.findVersionInApplication(application);
-            if (release.startsWith("2.")) {
-                org.apache.dubbo.admin.model.domain.FullServiceDefinition serviceDefinition = gson.fromJson(metadata,
-                        org.apache.dubbo.admin.model.domain.FullServiceDefinition.class);
-                List<org.apache.dubbo.admin.model.domain.MethodDefinition> methods = serviceDefinition.getMethods();
-                if (methods != null) {
-                    for (org.apache.dubbo.admin.model.domain.MethodDefinition m : methods) {
-                        if (ServiceTestUtil.sameMethod(m, method)) {
-                            methodMetadata = ServiceTestUtil.generateMethodMeta(serviceDefinition, m);
-                            break;
-                        }
-                    }
-                }
-            } else {
-                FullServiceDefinition serviceDefinition = gson.fromJson(metadata,
-                        FullServiceDefinition.class);
-                List<MethodDefinition> methods = serviceDefinition.getMethods();
-                if (methods != null) {
-                    for (MethodDefinition m : methods) {
-                        if (ServiceTestV3Util.sameMethod(m, method)) {
-                            methodMetadata = ServiceTestV3Util.generateMethodMeta(serviceDefinition, m);
-                            break;
-                        }
-                    }
-                }
-            }
+            methodMetadata = serviceDefinitionCache.getMethodMetadata(metadata, release.startsWith("2."), method);
         }
         return methodMetadata;
     }
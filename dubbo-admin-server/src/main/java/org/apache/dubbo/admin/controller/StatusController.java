@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.controller;
+
+import org.apache.dubbo.admin.annotation.Authority;
+import org.apache.dubbo.admin.common.util.Pair;
+import org.apache.dubbo.admin.config.ConfigCenter;
+import org.apache.dubbo.admin.model.dto.StatusDTO;
+import org.apache.dubbo.admin.registry.mapping.AdminMappingListener;
+import org.apache.dubbo.admin.registry.metadata.MetaDataCollector;
+import org.apache.dubbo.admin.registry.metadata.impl.CachingMetaDataCollector;
+import org.apache.dubbo.admin.service.RegistryServerSync;
+import org.apache.dubbo.admin.service.impl.GenericServiceImpl;
+import org.apache.dubbo.admin.service.impl.InstanceRegistryCache;
+import org.apache.dubbo.admin.service.impl.RegistryCacheSnapshot;
+
+import com.google.common.cache.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Authority(needLogin = true)
+@RestController
+@RequestMapping("/api/{env}/status")
+public class StatusController {
+
+    private final RegistryCacheSnapshot registryCacheSnapshot;
+
+    private final GenericServiceImpl genericService;
+
+    private final AdminMappingListener mappingListener;
+
+    private final MetaDataCollector metaDataCollector;
+
+    private final ConfigCenter configCenter;
+
+    private final RegistryServerSync registryServerSync;
+
+    private final InstanceRegistryCache instanceRegistryCache;
+
+    @Autowired
+    public StatusController(RegistryCacheSnapshot registryCacheSnapshot, GenericServiceImpl genericService,
+                            AdminMappingListener mappingListener, MetaDataCollector metaDataCollector,
+                            ConfigCenter configCenter, RegistryServerSync registryServerSync,
+                            InstanceRegistryCache instanceRegistryCache) {
+        this.registryCacheSnapshot = registryCacheSnapshot;
+        this.genericService = genericService;
+        this.mappingListener = mappingListener;
+        this.metaDataCollector = metaDataCollector;
+        this.configCenter = configCenter;
+        this.registryServerSync = registryServerSync;
+        this.instanceRegistryCache = instanceRegistryCache;
+    }
+
+    @RequestMapping(method = RequestMethod.GET)
+    public StatusDTO status(@PathVariable String env) {
+        StatusDTO status = new StatusDTO();
+        status.setBootstrapTimings(configCenter.getBootstrapTimings());
+        status.setRegistryCacheStale(registryCacheSnapshot.isStale());
+        Map<String, Long> notifications = new LinkedHashMap<>();
+        notifications.put("notifications", registryServerSync.getNotifications());
+        notifications.put("addedUrls", registryServerSync.getAddedUrls());
+        notifications.put("removedUrls", registryServerSync.getRemovedUrls());
+        status.setRegistryNotifications(notifications);
+        Pair<Integer, Integer> interned = instanceRegistryCache.getInternedCounts();
+        status.setInternedRevisions(interned.getKey());
+        status.setInternedUrls(interned.getValue());
+        Pair<Integer, Integer> progress = mappingListener.getProgress();
+        status.setMappingReady(mappingListener.isReady());
+        status.setMappingListenedApps(progress.getKey());
+        status.setMappingPendingApps(progress.getValue());
+        status.setGenericReferences(toMap(genericService.getReferenceCount(), genericService.getReferenceStats()));
+        if (metaDataCollector instanceof CachingMetaDataCollector) {
+            CachingMetaDataCollector cache = (CachingMetaDataCollector) metaDataCollector;
+            Map<String, Long> metadataCache = new LinkedHashMap<>();
+            metadataCache.put("size", cache.getSize());
+            metadataCache.put("hits", cache.getHitCount());
+            metadataCache.put("negativeHits", cache.getNegativeHitCount());
+            metadataCache.put("misses", cache.getMissCount());
+            metadataCache.put("invalidations", cache.getInvalidationCount());
+            status.setMetadataCache(metadataCache);
+            status.setMetadataCacheWatching(cache.isWatching());
+        }
+        return status;
+    }
+
+    private static Map<String, Long> toMap(long size, CacheStats stats) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        map.put("size", size);
+        map.put("hits", stats.hitCount());
+        map.put("misses", stats.missCount());
+        map.put("loadFailures", stats.loadExceptionCount());
+        map.put("evictions", stats.evictionCount());
+        return map;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.model.dto;
+
+import java.util.Map;
+
+/**
+ * state of the admin server itself, for the operators
+ */
+public class StatusDTO {
+
+    /**
+     * whether entries restored from the registry cache snapshot are served before the registry confirmed them
+     */
+    private boolean registryCacheStale;
+
+    /**
+     * size, hits, misses, load failures and evictions of the generic references of the service test
+     */
+    private Map<String, Long> genericReferences;
+
+    /**
+     * whether the instances of all apps found by the service mapping so far are listened
+     */
+    private boolean mappingReady;
+
+    /**
+     * count of apps whose instances are listened
+     */
+    private int mappingListenedApps;
+
+    /**
+     * count of apps whose instance listeners are being registered
+     */
+    private int mappingPendingApps;
+
+    /**
+     * size, hits, negative hits, misses and invalidations of the metadata cache, null if it is disabled
+     */
+    private Map<String, Long> metadataCache;
+
+    /**
+     * whether the metadata cache is invalidated by the changes of the metadata center, or only expires
+     */
+    private boolean metadataCacheWatching;
+
+    /**
+     * bootstrap phase of the config center --> elapsed millis
+     */
+    private Map<String, Long> bootstrapTimings;
+
+    /**
+     * notifications received from the registry, and the urls they added and removed
+     */
+    private Map<String, Long> registryNotifications;
+
+    /**
+     * count of distinct metadata revisions shared by the instances
+     */
+    private int internedRevisions;
+
+    /**
+     * count of distinct instance urls shared by the services
+     */
+    private int internedUrls;
+
+    public boolean isRegistryCacheStale() {
+        return registryCacheStale;
+    }
+
+    public void setRegistryCacheStale(boolean registryCacheStale) {
+        this.registryCacheStale = registryCacheStale;
+    }
+
+    public Map<String, Long> getGenericReferences() {
+        return genericReferences;
+    }
+
+    public void setGenericReferences(Map<String, Long> genericReferences) {
+        this.genericReferences = genericReferences;
+    }
+
+    public boolean isMappingReady() {
+        return mappingReady;
+    }
+
+    public void setMappingReady(boolean mappingReady) {
+        this.mappingReady = mappingReady;
+    }
+
+    public int getMappingListenedApps() {
+        return mappingListenedApps;
+    }
+
+    public void setMappingListenedApps(int mappingListenedApps) {
+        this.mappingListenedApps = mappingListenedApps;
+    }
+
+    public int getMappingPendingApps() {
+        return mappingPendingApps;
+    }
+
+    public void setMappingPendingApps(int mappingPendingApps) {
+        this.mappingPendingApps = mappingPendingApps;
+    }
+
+    public Map<String, Long> getMetadataCache() {
+        return metadataCache;
+    }
+
+    public void setMetadataCache(Map<String, Long> metadataCache) {
+        this.metadataCache = metadataCache;
+    }
+
+    public boolean isMetadataCacheWatching() {
+        return metadataCacheWatching;
+    }
+
+    public void setMetadataCacheWatching(boolean metadataCacheWatching) {
+        this.metadataCacheWatching = metadataCacheWatching;
+    }
+
+    public Map<String, Long> getBootstrapTimings() {
+        return bootstrapTimings;
+    }
+
+    public void setBootstrapTimings(Map<String, Long> bootstrapTimings) {
+        this.bootstrapTimings = bootstrapTimings;
+    }
+
+    public Map<String, Long> getRegistryNotifications() {
+        return registryNotifications;
+    }
+
+    public void setRegistryNotifications(Map<String, Long> registryNotifications) {
+        this.registryNotifications = registryNotifications;
+    }
+
+    public int getInternedRevisions() {
+        return internedRevisions;
+    }
+
+    public void setInternedRevisions(int internedRevisions) {
+        this.internedRevisions = internedRevisions;
+    }
+
+    public int getInternedUrls() {
+        return internedUrls;
+    }
+
+    public void setInternedUrls(int internedUrls) {
+        this.internedUrls = internedUrls;
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.dubbo.admin.registry.mapping;
 import org.apache.dubbo.common.URL;
 
 import java.util.List;
+import java.util.Map;
 
 public interface AddressChangeListener {
 
@@ -29,4 +30,12 @@ public interface AddressChangeListener {
      * @param urls               instance address url
      */
     void notifyAddressChanged(String protocolServiceKey, List<URL> urls);
+
+    /**
+     * notify instance address url changes of several services at once
+     * @param changes protocolServiceKey --> instance address url, empty urls for removed services
+     */
+    default void notifyAddressChanged(Map<String, List<URL>> changes) {
+        changes.forEach(this::notifyAddressChanged);
+    }
 }
@@ -18,8 +18,11 @@
 package org.apache.dubbo.admin.registry.mapping;
 
 import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.common.util.Pair;
 import org.apache.dubbo.admin.service.impl.InstanceRegistryCache;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.CollectionUtils;
 import org.apache.dubbo.common.utils.NetUtils;
 import org.apache.dubbo.metadata.MappingChangedEvent;
@@ -31,12 +34,22 @@ import org.apache.dubbo.registry.client.event.ServiceInstancesChangedEvent;
 import org.apache.dubbo.registry.client.event.listener.ServiceInstancesChangedListener;
 
 import com.google.common.collect.Sets;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class AdminMappingListener implements MappingListener {
@@ -53,16 +66,43 @@ public class AdminMappingListener implements MappingListener {
             Constants.ENABLED_KEY, Constants.ANY_VALUE,
             Constants.CHECK_KEY, String.valueOf(false));
 
+    private static final Logger logger = LoggerFactory.getLogger(AdminMappingListener.class);
+
+    private static final int DEFAULT_REGISTER_THREADS = 8;
+
     /* app - listener */
     private final Map<String, ServiceInstancesChangedListener> serviceListeners = new ConcurrentHashMap<>();
 
+    /* app - registration in progress or done, one per app */
+    private final Map<String, CompletableFuture<ServiceInstancesChangedListener>> registrations = new ConcurrentHashMap<>();
+
+    private final AtomicInteger pendingRegistrations = new AtomicInteger();
+
+    private final AtomicInteger failedRegistrations = new AtomicInteger();
+
+    /**
+     * whether the full scan of the mappings has completed, the apps are not all known before
+     */
+    private volatile boolean scanned;
+
     private final ServiceDiscovery serviceDiscovery;
 
     private final InstanceRegistryCache instanceRegistryCache;
 
+    private final ExecutorService executor;
+
     public AdminMappingListener(ServiceDiscovery serviceDiscovery, InstanceRegistryCache instanceRegistryCache) {
+        this(serviceDiscovery, instanceRegistryCache, DEFAULT_REGISTER_THREADS);
+    }
+
+    public AdminMappingListener(ServiceDiscovery serviceDiscovery, InstanceRegistryCache instanceRegistryCache, int registerThreads) {
         this.serviceDiscovery = serviceDiscovery;
         this.instanceRegistryCache = instanceRegistryCache;
+        int threads = Math.max(1, registerThreads);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-mapping-register-%d").daemon(true).build());
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
     }
 
     @Override
@@ -72,27 +112,81 @@ public class AdminMappingListener implements MappingListener {
             return;
         }
         for (String serviceName : apps) {
-            ServiceInstancesChangedListener serviceInstancesChangedListener = serviceListeners.get(serviceName);
-            if (serviceInstancesChangedListener == null) {
-                synchronized (this) {
-                    serviceInstancesChangedListener = serviceListeners.get(serviceName);
-                    if (serviceInstancesChangedListener == null) {
-                        AddressChangeListener addressChangeListener = new DefaultAddressChangeListener(serviceName, instanceRegistryCache);
-                        serviceInstancesChangedListener = new AdminServiceInstancesChangedListener(Sets.newHashSet(serviceName), serviceDiscovery, addressChangeListener);
-                        serviceInstancesChangedListener.setUrl(CONSUMER_URL);
-                        List<ServiceInstance> serviceInstances = serviceDiscovery.getInstances(serviceName);
-                        if (CollectionUtils.isNotEmpty(serviceInstances)) {
-                            serviceInstancesChangedListener.onEvent(new ServiceInstancesChangedEvent(serviceName, serviceInstances));
-                        }
-                        serviceListeners.put(serviceName, serviceInstancesChangedListener);
-                        serviceInstancesChangedListener.setUrl(CONSUMER_URL);
-                        serviceDiscovery.addServiceInstancesChangedListener(serviceInstancesChangedListener);
-                    }
+            if (!registrations.containsKey(serviceName)) {
+                CompletableFuture<ServiceInstancesChangedListener> future = new CompletableFuture<>();
+                if (registrations.putIfAbsent(serviceName, future) == null) {
+                    register(serviceName, future);
                 }
             }
         }
     }
 
+    /**
+     * register the listener of an app on the worker pool, a failed registration is retried by the next event of the app
+     */
+    private void register(String serviceName, CompletableFuture<ServiceInstancesChangedListener> future) {
+        pendingRegistrations.incrementAndGet();
+        future.whenComplete((listener, e) -> {
+            if (e != null) {
+                failedRegistrations.incrementAndGet();
+                registrations.remove(serviceName, future);
+                logger.error("Failed to listen instances of " + serviceName, e);
+            }
+            if (pendingRegistrations.decrementAndGet() == 0) {
+                logger.info("Listening instances of " + serviceListeners.size() + " apps, " + failedRegistrations.get() + " failed");
+            }
+        });
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(doRegister(serviceName));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private ServiceInstancesChangedListener doRegister(String serviceName) {
+        AddressChangeListener addressChangeListener = new DefaultAddressChangeListener(serviceName, instanceRegistryCache);
+        ServiceInstancesChangedListener serviceInstancesChangedListener = new AdminServiceInstancesChangedListener(Sets.newHashSet(serviceName), serviceDiscovery, addressChangeListener);
+        serviceInstancesChangedListener.setUrl(CONSUMER_URL);
+        List<ServiceInstance> serviceInstances = serviceDiscovery.getInstances(serviceName);
+        if (CollectionUtils.isNotEmpty(serviceInstances)) {
+            serviceInstancesChangedListener.onEvent(new ServiceInstancesChangedEvent(serviceName, serviceInstances));
+        }
+        serviceListeners.put(serviceName, serviceInstancesChangedListener);
+        serviceDiscovery.addServiceInstancesChangedListener(serviceInstancesChangedListener);
+        return serviceInstancesChangedListener;
+    }
+
+    /**
+     * called once the full scan of the mappings has completed
+     */
+    public void markScanned() {
+        scanned = true;
+    }
+
+    /**
+     * @return whether the mappings are scanned and all apps found are listened
+     */
+    public boolean isReady() {
+        return scanned && pendingRegistrations.get() == 0;
+    }
+
+    /**
+     * @return count of apps listened --> count of apps being registered
+     */
+    public Pair<Integer, Integer> getProgress() {
+        return new Pair<>(serviceListeners.size(), pendingRegistrations.get());
+    }
+
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
     private static class DefaultAddressChangeListener implements AddressChangeListener {
 
         private String serviceName;
@@ -106,15 +200,17 @@ public class AdminMappingListener implements MappingListener {
 
         @Override
         public void notifyAddressChanged(String protocolServiceKey, List<URL> urls) {
-            String serviceKey = removeProtocol(protocolServiceKey);
-            ConcurrentMap<String, Map<String, List<InstanceAddressURL>>> appServiceMap = instanceRegistryCache.computeIfAbsent(Constants.PROVIDERS_CATEGORY, key -> new ConcurrentHashMap<>());
-            Map<String, List<InstanceAddressURL>> serviceMap = appServiceMap.computeIfAbsent(serviceName, key -> new ConcurrentHashMap<>());
-            if (CollectionUtils.isEmpty(urls)) {
-                serviceMap.remove(serviceKey);
-            } else {
-                List<InstanceAddressURL> instanceAddressUrls = urls.stream().map(url -> (InstanceAddressURL) url).collect(Collectors.toList());
-                serviceMap.put(serviceKey, instanceAddressUrls);
-            }
+            notifyAddressChanged(Collections.singletonMap(protocolServiceKey, urls));
+        }
+
+        @Override
+        public void notifyAddressChanged(Map<String, List<URL>> changes) {
+            Map<String, List<InstanceAddressURL>> providers = new HashMap<>();
+            // services of one revision and protocol share the same url list, convert it once
+            Map<List<URL>, List<InstanceAddressURL>> converted = new IdentityHashMap<>();
+            changes.forEach((protocolServiceKey, urls) -> providers.put(removeProtocol(protocolServiceKey),
+                    converted.computeIfAbsent(urls, key -> key.stream().map(url -> (InstanceAddressURL) url).collect(Collectors.toList()))));
+            instanceRegistryCache.putProviders(serviceName, providers);
         }
 
         private String removeProtocol(String protocolServiceKey) {
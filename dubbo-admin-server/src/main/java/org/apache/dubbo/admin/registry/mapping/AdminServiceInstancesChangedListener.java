@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 public class AdminServiceInstancesChangedListener extends ServiceInstancesChangedListener {
@@ -39,12 +40,24 @@ public class AdminServiceInstancesChangedListener extends ServiceInstancesChange
         oldServiceUrls = new HashMap<>();
     }
 
+    /**
+     * only the services whose urls changed since the last notification are forwarded, in one batch
+     */
+    @Override
     protected void notifyAddressChanged() {
+        Map<String, List<URL>> changes = new HashMap<>();
         oldServiceUrls.keySet().stream()
                 .filter(protocolServiceKey -> !serviceUrls.containsKey(protocolServiceKey))
-                .forEach(protocolServiceKey -> addressChangeListener.notifyAddressChanged(protocolServiceKey, new ArrayList<>()));
-        serviceUrls.forEach((protocolServiceKey, urls) -> addressChangeListener.notifyAddressChanged(protocolServiceKey, (List<URL>) urls));
-
-        oldServiceUrls = serviceUrls;
+                .forEach(protocolServiceKey -> changes.put(protocolServiceKey, new ArrayList<>()));
+        serviceUrls.forEach((protocolServiceKey, urls) -> {
+            if (!Objects.equals(oldServiceUrls.get(protocolServiceKey), urls)) {
+                changes.put(protocolServiceKey, (List<URL>) urls);
+            }
+        });
+        if (!changes.isEmpty()) {
+            addressChangeListener.notifyAddressChanged(changes);
+        }
+
+        oldServiceUrls = new HashMap<>(serviceUrls);
     }
 }
@@ -27,10 +27,22 @@ import org.apache.dubbo.metadata.MappingListener;
 @SPI("zookeeper")
 public interface ServiceMapping {
 
+    /**
+     * connect the mapping center, the mappings are not listened yet
+     */
     void init(URL url);
 
+    /**
+     * scan all mappings and listen to the changes of them, it is called once the application is ready
+     */
     void listenerAll();
 
     void addMappingListener(MappingListener listener);
 
+    /**
+     * disconnect the mapping center, it is called when the application is closed
+     */
+    default void destroy() {
+    }
+
 }
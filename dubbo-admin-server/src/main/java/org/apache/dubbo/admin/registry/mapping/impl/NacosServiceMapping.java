@@ -29,16 +29,21 @@ import org.apache.dubbo.registry.nacos.NacosNamingServiceWrapper;
 import org.apache.dubbo.registry.nacos.util.NacosNamingServiceUtils;
 
 import com.alibaba.nacos.api.common.Constants;
-import com.alibaba.nacos.api.exception.NacosException;
 import com.alibaba.nacos.api.naming.pojo.ListView;
 import com.google.common.collect.Sets;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -49,7 +54,8 @@ import static org.apache.dubbo.common.constants.RegistryConstants.PROVIDERS_CATE
 import static org.apache.dubbo.common.constants.RegistryConstants.ROUTERS_CATEGORY;
 
 /**
- * Nacos not support batch listen config feature. Therefore, regularly query the service list instead of notification
+ * Nacos not support batch listen config feature. Therefore, regularly query the service list instead of notification.
+ * The pages of the service list are fetched concurrently, and the query interval adapts to the changes of the list
  */
 public class NacosServiceMapping implements ServiceMapping {
 
@@ -72,8 +78,19 @@ public class NacosServiceMapping implements ServiceMapping {
 
     private static final long LOOKUP_INTERVAL = Long.getLong("nacos.service.names.lookup.interval", 30);
 
+    /**
+     * the lookup interval is halved down to this when the service names change, and doubled up to the max when not
+     */
+    private static final long MIN_LOOKUP_INTERVAL = Long.getLong("nacos.service.names.lookup.min.interval", 5);
+
+    private static final long MAX_LOOKUP_INTERVAL = Long.getLong("nacos.service.names.lookup.max.interval", 120);
+
+    private static final int FETCH_THREADS = Integer.getInteger("nacos.service.names.fetch.threads", 4);
+
     private ScheduledExecutorService scheduledExecutorService;
 
+    private ExecutorService fetchExecutorService;
+
     private final Set<MappingListener> listeners = new ConcurrentHashSet<>();
 
     private static final int PAGINATION_SIZE = 100;
@@ -82,67 +99,71 @@ public class NacosServiceMapping implements ServiceMapping {
 
     private Set<String> anyServices = new HashSet<>();
 
+    private long lookupInterval = LOOKUP_INTERVAL;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(NacosServiceMapping.class);
 
     @Override
     public void init(URL url) {
         url.addParameter(NAMING_LOAD_CACHE_AT_START, "false");
         namingService = NacosNamingServiceUtils.createNamingService(url);
-        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
-        listenerAll();
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-nacos-mapping-%d").daemon(true).build());
+        fetchExecutorService = new ThreadPoolExecutor(FETCH_THREADS, FETCH_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-nacos-mapping-fetch-%d").daemon(true).build());
     }
 
     @Override
     public void listenerAll() {
+        lookup();
+    }
 
+    /**
+     * compare the service names with the last lookup, notify the added ones, then schedule the next lookup
+     * according to the observed changes
+     */
+    private void lookup() {
         try {
-            anyServices = getAllServiceNames().stream().filter(this::filterApplication).collect(Collectors.toSet());
+            Set<String> serviceNames = getAllServiceNames().stream().filter(this::filterApplication).collect(Collectors.toSet());
+            Set<String> added = Sets.difference(serviceNames, anyServices).immutableCopy();
+            Set<String> removed = Sets.difference(anyServices, serviceNames).immutableCopy();
+            anyServices = serviceNames;
+            for (String service : added) {
+                notifyMappingChangedEvent(service);
+            }
+            if (!removed.isEmpty()) {
+                LOGGER.info("Nacos services removed: " + removed);
+            }
+            if (added.isEmpty() && removed.isEmpty()) {
+                lookupInterval = Math.min(MAX_LOOKUP_INTERVAL, lookupInterval * 2);
+            } else {
+                lookupInterval = Math.max(MIN_LOOKUP_INTERVAL, lookupInterval / 2);
+            }
         } catch (Exception e) {
             LOGGER.error("Get nacos all services fail ", e);
         }
-        for (String service : anyServices) {
-            notifyMappingChangedEvent(service);
-        }
-        scheduledExecutorService.scheduleAtFixedRate(() -> {
-            try {
-                Set<String> serviceNames = getAllServiceNames();
-                for (String serviceName : serviceNames) {
-                    if (filterApplication(serviceName) && anyServices.add(serviceName)) {
-                        notifyMappingChangedEvent(serviceName);
-                    }
-                }
-            } catch (Exception e) {
-                LOGGER.error("Get nacos all services fail ", e);
-            }
-
-        }, LOOKUP_INTERVAL, LOOKUP_INTERVAL, TimeUnit.SECONDS);
+        scheduledExecutorService.schedule(this::lookup, lookupInterval, TimeUnit.SECONDS);
     }
 
-    private Set<String> getAllServiceNames() throws NacosException {
-
-        Set<String> serviceNames = new HashSet<>();
-        int pageIndex = 1;
-        ListView<String> listView = namingService.getServicesOfServer(pageIndex, PAGINATION_SIZE,
-                Constants.DEFAULT_GROUP);
-        // First page data
-        List<String> firstPageData = listView.getData();
-        // Append first page into list
-        serviceNames.addAll(firstPageData);
-        // the total count
-        int count = listView.getCount();
-        // the number of pages
-        int pageNumbers = count / PAGINATION_SIZE;
-        int remainder = count % PAGINATION_SIZE;
-        // remain
-        if (remainder > 0) {
-            pageNumbers += 1;
+    /**
+     * fetch the first page to know the count, then the other pages concurrently
+     */
+    private Set<String> getAllServiceNames() throws Exception {
+        ListView<String> listView = namingService.getServicesOfServer(1, PAGINATION_SIZE, Constants.DEFAULT_GROUP);
+        Set<String> serviceNames = new HashSet<>(listView.getData());
+        int pageNumbers = (listView.getCount() + PAGINATION_SIZE - 1) / PAGINATION_SIZE;
+        List<Future<ListView<String>>> pages = new ArrayList<>();
+        for (int pageIndex = 2; pageIndex <= pageNumbers; pageIndex++) {
+            int page = pageIndex;
+            pages.add(fetchExecutorService.submit(() -> namingService.getServicesOfServer(page, PAGINATION_SIZE, Constants.DEFAULT_GROUP)));
         }
-        // If more than 1 page
-        while (pageIndex < pageNumbers) {
-            listView = namingService.getServicesOfServer(++pageIndex, PAGINATION_SIZE, Constants.DEFAULT_GROUP);
-            serviceNames.addAll(listView.getData());
+        try {
+            for (Future<ListView<String>> page : pages) {
+                serviceNames.addAll(page.get().getData());
+            }
+        } finally {
+            pages.forEach(page -> page.cancel(true));
         }
-
         return serviceNames;
     }
 
@@ -20,74 +20,345 @@ package org.apache.dubbo.admin.registry.mapping.impl;
 import org.apache.dubbo.admin.common.util.Constants;
 import org.apache.dubbo.admin.registry.mapping.ServiceMapping;
 import org.apache.dubbo.common.URL;
-import org.apache.dubbo.common.utils.CollectionUtils;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.ConcurrentHashSet;
+import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.metadata.MappingChangedEvent;
 import org.apache.dubbo.metadata.MappingListener;
-import org.apache.dubbo.remoting.zookeeper.ZookeeperClient;
-import org.apache.dubbo.remoting.zookeeper.ZookeeperTransporter;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.dubbo.metadata.ServiceNameMapping.getAppNames;
 
-
+/**
+ * The children of the mapping path and the content of each mapping are watched. Every mapping is read once by an
+ * asynchronous read, and once more whenever it changes, with at most {@code read.batch.size} reads in flight.
+ * The app names are parsed on a thread pool, so the contents of one mapping are ordered by the modification zxid
+ * of their stat, and an older content never replaces a newer one.
+ */
 public class ZookeeperServiceMapping implements ServiceMapping {
 
-    private ZookeeperClient zkClient;
+    private static final Logger logger = LoggerFactory.getLogger(ZookeeperServiceMapping.class);
 
     private final static String MAPPING_PATH = Constants.PATH_SEPARATOR + Constants.DEFAULT_ROOT + Constants.PATH_SEPARATOR + Constants.DEFAULT_MAPPING_GROUP;
 
+    private static final int DEFAULT_READ_BATCH_SIZE = 256;
+
+    private static final int DEFAULT_PARSE_THREADS = 4;
+
+    private static final long DEFAULT_LOAD_TIMEOUT_SECONDS = 60;
+
     private final Set<MappingListener> listeners = new ConcurrentHashSet<>();
 
-    private final Set<String> anyServices = new ConcurrentHashSet<>();
+    /**
+     * service --> app names and modification zxid of the newest mapping
+     */
+    private final ConcurrentMap<String, Mapping> mappings = new ConcurrentHashMap<>();
+
+    /**
+     * children of the mapping path last listed
+     */
+    private final Set<String> children = ConcurrentHashMap.newKeySet();
+
+    /**
+     * reads waiting for a slot, at most readBatchSize reads are in flight
+     */
+    private final Queue<Read> pendingReads = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicBoolean listening = new AtomicBoolean();
+
+    private final CuratorWatcher childrenWatcher = event -> {
+        if (event.getType() == Watcher.Event.EventType.NodeChildrenChanged) {
+            listChildren();
+        }
+    };
+
+    private volatile boolean sessionLost;
+
+    private CuratorFramework client;
+
+    private ExecutorService parseExecutor;
+
+    private int readBatchSize;
+
+    private long loadTimeoutSeconds;
 
     @Override
     public void init(URL url) {
-        ZookeeperTransporter zookeeperTransporter = ZookeeperTransporter.getExtension();
-        zkClient = zookeeperTransporter.connect(url);
-        listenerAll();
+        readBatchSize = Math.max(1, url.getParameter(Constants.MAPPING_READ_BATCH_SIZE_KEY, DEFAULT_READ_BATCH_SIZE));
+        loadTimeoutSeconds = url.getParameter(Constants.MAPPING_LOAD_TIMEOUT_KEY, DEFAULT_LOAD_TIMEOUT_SECONDS);
+        int parseThreads = Math.max(1, url.getParameter(Constants.MAPPING_PARSE_THREADS_KEY, DEFAULT_PARSE_THREADS));
+        CuratorFrameworkFactory.Builder builder = CuratorFrameworkFactory.builder()
+                .connectString(url.getBackupAddress())
+                .retryPolicy(new ExponentialBackoffRetry(1000, 3));
+        if (StringUtils.isNotEmpty(url.getUsername())) {
+            builder.authorization("digest", (url.getUsername() + ":" + url.getPassword()).getBytes(StandardCharsets.UTF_8));
+        }
+        client = builder.build();
+        client.start();
+        parseExecutor = new ThreadPoolExecutor(parseThreads, parseThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-mapping-parse-%d").daemon(true).build());
     }
 
     @Override
     public void listenerAll() {
-        zkClient.create(MAPPING_PATH, false);
-        List<String> services = zkClient.addChildListener(MAPPING_PATH, (path, currentChildList) -> {
-            for (String child : currentChildList) {
-                if (anyServices.add(child)) {
-                    notifyMappingChangedEvent(child);
-                }
+        if (!listening.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (client.checkExists().forPath(MAPPING_PATH) == null) {
+                client.create().creatingParentsIfNeeded().forPath(MAPPING_PATH);
             }
-        });
-        if (CollectionUtils.isNotEmpty(services)) {
-            for (String service : services) {
-                if (anyServices.add(service)) {
-                    notifyMappingChangedEvent(service);
+        } catch (KeeperException.NodeExistsException ignored) {
+            // created concurrently
+        } catch (Exception e) {
+            logger.error("Failed to create mapping path " + MAPPING_PATH, e);
+            listening.set(false);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<String> services;
+        try {
+            services = client.getChildren().usingWatcher(childrenWatcher).forPath(MAPPING_PATH);
+        } catch (Exception e) {
+            logger.error("Failed to list mappings of " + MAPPING_PATH, e);
+            listening.set(false);
+            return;
+        }
+        client.getConnectionStateListenable().addListener((curator, state) -> onConnectionStateChanged(state));
+        CountDownLatch loaded = new CountDownLatch(services.size());
+        for (String service : services) {
+            if (children.add(service) && !isCategory(service)) {
+                read(service, loaded);
+            } else {
+                loaded.countDown();
+            }
+        }
+        try {
+            if (!loaded.await(loadTimeoutSeconds, TimeUnit.SECONDS)) {
+                logger.warn("Timeout to load mappings of " + MAPPING_PATH + ", " + loaded.getCount() + " left");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        logger.info("Loaded " + mappings.size() + " mappings in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * the watches are gone with an expired session, list and read all mappings again once reconnected
+     */
+    private void onConnectionStateChanged(ConnectionState state) {
+        if (state == ConnectionState.LOST) {
+            sessionLost = true;
+        } else if (state == ConnectionState.RECONNECTED && sessionLost) {
+            sessionLost = false;
+            children.clear();
+            listChildren();
+        }
+    }
+
+    private void listChildren() {
+        try {
+            client.getChildren().usingWatcher(childrenWatcher).inBackground((curator, event) -> {
+                if (event.getResultCode() != KeeperException.Code.OK.intValue()) {
+                    logger.warn("Failed to list mappings of " + MAPPING_PATH + ", code: " + event.getResultCode());
+                    return;
                 }
+                onChildren(event.getChildren());
+            }).forPath(MAPPING_PATH);
+        } catch (Exception e) {
+            logger.error("Failed to list mappings of " + MAPPING_PATH, e);
+        }
+    }
+
+    private void onChildren(List<String> services) {
+        Set<String> current = new HashSet<>(services);
+        for (String service : children) {
+            if (!current.contains(service)) {
+                children.remove(service);
+                mappings.remove(service);
+            }
+        }
+        for (String service : current) {
+            if (children.add(service) && !isCategory(service)) {
+                read(service, null);
             }
         }
     }
 
-    private void notifyMappingChangedEvent(String service) {
-        if (service.equals(Constants.CONFIGURATORS_CATEGORY) || service.equals(Constants.CONSUMERS_CATEGORY)
-                || service.equals(Constants.PROVIDERS_CATEGORY) || service.equals(Constants.ROUTERS_CATEGORY)) {
+    /**
+     * queue a read of a mapping, it is sent once a slot of the read window is free
+     *
+     * @param loaded counted down once the mapping is parsed or failed to be read, null if nobody waits for it
+     */
+    private void read(String service, CountDownLatch loaded) {
+        pendingReads.add(new Read(service, loaded));
+        sendReads();
+    }
+
+    private void sendReads() {
+        while (!pendingReads.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= readBatchSize) {
+                // a read completing sends the next ones
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Read read = pendingReads.poll();
+            if (read == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            try {
+                client.getData().usingWatcher((CuratorWatcher) event -> onDataChanged(read.service, event))
+                        .inBackground((curator, event) -> onRead(read, event))
+                        .forPath(MAPPING_PATH + Constants.PATH_SEPARATOR + read.service);
+            } catch (Exception e) {
+                inFlight.decrementAndGet();
+                read.done();
+                logger.warn("Failed to read mapping of " + read.service, e);
+            }
+        }
+    }
+
+    private void onDataChanged(String service, WatchedEvent event) {
+        if (event.getType() == Watcher.Event.EventType.NodeDataChanged && children.contains(service)) {
+            read(service, null);
+        }
+    }
+
+    private void onRead(Read read, CuratorEvent event) {
+        inFlight.decrementAndGet();
+        if (event.getResultCode() == KeeperException.Code.OK.intValue() && event.getData() != null) {
+            byte[] data = event.getData();
+            long version = event.getStat() == null ? 0 : event.getStat().getMzxid();
+            try {
+                parseExecutor.execute(() -> {
+                    try {
+                        onContent(read.service, data, version);
+                    } finally {
+                        read.done();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                read.done();
+            }
+        } else {
+            if (event.getResultCode() != KeeperException.Code.NONODE.intValue()) {
+                logger.warn("Failed to read mapping of " + read.service + ", code: " + event.getResultCode());
+            }
+            read.done();
+        }
+        sendReads();
+    }
+
+    /**
+     * parse the app names of a mapping, the listeners are notified if they are changed by a newer content
+     */
+    private void onContent(String service, byte[] data, long version) {
+        if (!children.contains(service)) {
+            // removed while it was read
             return;
         }
-        String servicePath = MAPPING_PATH + Constants.PATH_SEPARATOR + service;
-        String content = zkClient.getContent(servicePath);
-        if (content != null) {
-            Set<String> apps = getAppNames(content);
-            MappingChangedEvent event = new MappingChangedEvent(service, apps);
-            for (MappingListener listener : listeners) {
-                listener.onEvent(event);
+        Set<String> apps = getAppNames(new String(data, StandardCharsets.UTF_8));
+        boolean[] changed = new boolean[1];
+        mappings.compute(service, (key, previous) -> {
+            if (previous != null && previous.version > version) {
+                return previous;
             }
+            changed[0] = previous == null || !Objects.equals(previous.apps, apps);
+            return new Mapping(version, apps);
+        });
+        if (!changed[0]) {
+            return;
+        }
+        MappingChangedEvent event = new MappingChangedEvent(service, apps);
+        for (MappingListener listener : listeners) {
+            listener.onEvent(event);
         }
     }
 
+    private static boolean isCategory(String service) {
+        return service.equals(Constants.CONFIGURATORS_CATEGORY) || service.equals(Constants.CONSUMERS_CATEGORY)
+                || service.equals(Constants.PROVIDERS_CATEGORY) || service.equals(Constants.ROUTERS_CATEGORY);
+    }
+
     @Override
     public void addMappingListener(MappingListener listener) {
         listeners.add(listener);
     }
 
+    @Override
+    public void destroy() {
+        if (parseExecutor != null) {
+            parseExecutor.shutdownNow();
+        }
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private static class Read {
+
+        private final String service;
+
+        private final CountDownLatch loaded;
+
+        Read(String service, CountDownLatch loaded) {
+            this.service = service;
+            this.loaded = loaded;
+        }
+
+        void done() {
+            if (loaded != null) {
+                loaded.countDown();
+            }
+        }
+    }
+
+    private static class Mapping {
+
+        private final long version;
+
+        private final Set<String> apps;
+
+        Mapping(long version, Set<String> apps) {
+            this.version = version;
+            this.apps = apps;
+        }
+    }
 }
@@ -21,6 +21,13 @@ import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.extension.SPI;
 import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.apache.dubbo.common.constants.CommonConstants.PROVIDER_SIDE;
+
 @SPI("zookeeper")
 public interface MetaDataCollector {
 
@@ -33,4 +40,29 @@ public interface MetaDataCollector {
     String getProviderMetaData(MetadataIdentifier key);
 
     String getConsumerMetaData(MetadataIdentifier key);
+
+    /**
+     * Get the metadata of a batch of providers and consumers at once, the collectors read them concurrently or
+     * with a multi-get of the metadata store instead of one round trip after another.
+     *
+     * @return identifier --> metadata, keyed by the given identifier instances. A metadata which does not exist is
+     * mapped to null, a metadata which failed to be read is not in the map
+     */
+    default Map<MetadataIdentifier, String> getMetaData(Collection<MetadataIdentifier> keys) {
+        Map<MetadataIdentifier, String> result = new HashMap<>();
+        for (MetadataIdentifier key : keys) {
+            result.put(key, PROVIDER_SIDE.equals(key.getSide()) ? getProviderMetaData(key) : getConsumerMetaData(key));
+        }
+        return result;
+    }
+
+    /**
+     * Set a listener of metadata changes. Once a metadata has been read, the listener is called with its
+     * identifier when it is changed, created or deleted in the metadata store.
+     *
+     * @return false if the metadata store can not watch the changes
+     */
+    default boolean setChangeListener(Consumer<MetadataIdentifier> listener) {
+        return false;
+    }
 }
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.registry.metadata.impl;
+
+import org.apache.dubbo.admin.registry.metadata.MetaDataCollector;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.metadata.report.identifier.KeyTypeEnum;
+import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Caches the metadata read from another collector. Found metadata are kept for the ttl, missing ones for the
+ * negative ttl. If the metadata store can watch the changes, a changed metadata is dropped at once.
+ */
+public class CachingMetaDataCollector implements MetaDataCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingMetaDataCollector.class);
+
+    private final MetaDataCollector delegate;
+
+    /**
+     * unique key --> metadata
+     */
+    private final Cache<String, String> values;
+
+    /**
+     * unique keys of the missing metadata
+     */
+    private final Cache<String, Boolean> misses;
+
+    /**
+     * bumped by every invalidation, a metadata read across an invalidation is not cached
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong negativeHitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private boolean watching;
+
+    public CachingMetaDataCollector(MetaDataCollector delegate, long maxSize, long ttlMillis, long negativeTtlMillis) {
+        this.delegate = delegate;
+        this.values = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS).build();
+        this.misses = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(negativeTtlMillis, TimeUnit.MILLISECONDS).build();
+    }
+
+    @Override
+    public void setUrl(URL url) {
+        delegate.setUrl(url);
+    }
+
+    @Override
+    public URL getUrl() {
+        return delegate.getUrl();
+    }
+
+    /**
+     * watch the changes of the delegate, which is initialized already
+     */
+    @Override
+    public void init() {
+        watching = delegate.setChangeListener(this::invalidate);
+        logger.info("Caching metadata of " + delegate.getClass().getSimpleName() + (watching ? ", invalidated by watches" : ", invalidated by ttl"));
+    }
+
+    @Override
+    public String getProviderMetaData(MetadataIdentifier key) {
+        return get(key, delegate::getProviderMetaData);
+    }
+
+    @Override
+    public String getConsumerMetaData(MetadataIdentifier key) {
+        return get(key, delegate::getConsumerMetaData);
+    }
+
+    /**
+     * serve the cached metadata, and read the others in one batch of the delegate. Only the metadata the delegate
+     * confirms missing are cached as missing, the ones it failed to read are left out
+     */
+    @Override
+    public Map<MetadataIdentifier, String> getMetaData(Collection<MetadataIdentifier> keys) {
+        Map<MetadataIdentifier, String> result = new HashMap<>();
+        List<MetadataIdentifier> loading = new ArrayList<>();
+        for (MetadataIdentifier identifier : keys) {
+            String key = identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY);
+            String value = values.getIfPresent(key);
+            if (value != null) {
+                hitCount.incrementAndGet();
+                result.put(identifier, value);
+            } else if (misses.getIfPresent(key) != null) {
+                negativeHitCount.incrementAndGet();
+            } else {
+                loading.add(identifier);
+            }
+        }
+        if (loading.isEmpty()) {
+            return result;
+        }
+        missCount.addAndGet(loading.size());
+        long version = invalidations.get();
+        Map<MetadataIdentifier, String> loaded = delegate.getMetaData(loading);
+        if (version == invalidations.get()) {
+            for (MetadataIdentifier identifier : loading) {
+                if (!loaded.containsKey(identifier)) {
+                    continue;
+                }
+                String value = loaded.get(identifier);
+                if (value == null) {
+                    misses.put(identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY), Boolean.TRUE);
+                } else {
+                    values.put(identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY), value);
+                }
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    @Override
+    public boolean setChangeListener(Consumer<MetadataIdentifier> listener) {
+        return delegate.setChangeListener(identifier -> {
+            invalidate(identifier);
+            listener.accept(identifier);
+        });
+    }
+
+    public void invalidate(MetadataIdentifier identifier) {
+        invalidations.incrementAndGet();
+        String key = identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY);
+        values.invalidate(key);
+        misses.invalidate(key);
+    }
+
+    public boolean isWatching() {
+        return watching;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getNegativeHitCount() {
+        return negativeHitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    public long getSize() {
+        return values.size() + misses.size();
+    }
+
+    private String get(MetadataIdentifier identifier, Function<MetadataIdentifier, String> loader) {
+        String key = identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY);
+        String value = values.getIfPresent(key);
+        if (value != null) {
+            hitCount.incrementAndGet();
+            return value;
+        }
+        if (misses.getIfPresent(key) != null) {
+            negativeHitCount.incrementAndGet();
+            return null;
+        }
+        missCount.incrementAndGet();
+        long version = invalidations.get();
+        value = loader.apply(identifier);
+        if (version == invalidations.get()) {
+            if (value == null) {
+                misses.put(key, Boolean.TRUE);
+            } else {
+                values.put(key, value);
+            }
+        }
+        return value;
+    }
+}
@@ -29,6 +29,8 @@ import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.metadata.report.identifier.KeyTypeEnum;
 import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Objects;
 
 
@@ -37,6 +39,7 @@ public class ConsulMetaDataCollector implements MetaDataCollector {
     private static final int DEFAULT_PORT = 8500;
     private URL url;
     private ConsulClient client;
+    private final ParallelMetaDataReader batchReader = new ParallelMetaDataReader("consul");
 
     @Override
     public URL getUrl() {
@@ -66,10 +69,19 @@ public class ConsulMetaDataCollector implements MetaDataCollector {
         return doGetMetaData(key);
     }
 
+    @Override
+    public Map<MetadataIdentifier, String> getMetaData(Collection<MetadataIdentifier> keys) {
+        return batchReader.read(keys, this::readMetaData);
+    }
+
+    private String readMetaData(MetadataIdentifier key) {
+        Response<GetValue> response = this.client.getKVValue(key.getUniqueKey(KeyTypeEnum.UNIQUE_KEY));
+        return response.getValue() == null ? null : response.getValue().getDecodedValue();
+    }
+
     private String doGetMetaData(MetadataIdentifier key) {
         try {
-            Response<GetValue> response = this.client.getKVValue(key.getUniqueKey(KeyTypeEnum.UNIQUE_KEY));
-            return response.getValue().getDecodedValue();
+            return readMetaData(key);
         } catch (Exception e) {
             LOG.error(String.format("Failed to fetch metadata for %s from consul, cause: %s",
                     key.getUniqueKey(KeyTypeEnum.UNIQUE_KEY), e.getMessage()), e);
@@ -30,19 +30,39 @@ import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
 
 import com.alibaba.nacos.api.NacosFactory;
 import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.config.listener.AbstractListener;
+import com.alibaba.nacos.api.config.listener.Listener;
 import com.alibaba.nacos.api.exception.NacosException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Collection;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 import static com.alibaba.nacos.api.PropertyKeyConst.SERVER_ADDR;
 import static com.alibaba.nacos.api.PropertyKeyConst.NAMESPACE;
 
 public class NacosMetaDataCollector implements MetaDataCollector {
     private static final Logger logger = LoggerFactory.getLogger(NacosMetaDataCollector.class);
+    private static final int LISTENERS_MAX_SIZE = Integer.getInteger("dubbo.admin.metadata.nacos.listeners", 10000);
     private ConfigService configService;
     private String group;
     private URL url;
+    private volatile Consumer<MetadataIdentifier> changeListener;
+    /**
+     * dataId --> listener of its changes, the least recently read ones are removed beyond LISTENERS_MAX_SIZE,
+     * their cached metadata is refreshed once it expires
+     */
+    private final Cache<String, Listener> listeners = CacheBuilder.newBuilder()
+            .maximumSize(LISTENERS_MAX_SIZE)
+            .removalListener((RemovalListener<String, Listener>) notification ->
+                    configService.removeListener(notification.getKey(), group, notification.getValue()))
+            .build();
+    private final ParallelMetaDataReader batchReader = new ParallelMetaDataReader("nacos");
     @Override
     public void setUrl(URL url) {
         this.url = url;
@@ -108,13 +128,52 @@ public class NacosMetaDataCollector implements MetaDataCollector {
         return getMetaData(key);
     }
 
+    @Override
+    public Map<MetadataIdentifier, String> getMetaData(Collection<MetadataIdentifier> keys) {
+        return batchReader.read(keys, this::readMetaData);
+    }
+
+    @Override
+    public boolean setChangeListener(Consumer<MetadataIdentifier> listener) {
+        this.changeListener = listener;
+        return true;
+    }
+
     private String getMetaData(MetadataIdentifier identifier) {
         try {
-            return configService.getConfig(identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY),
-                    group, 1000 * 10);
+            return readMetaData(identifier);
         } catch (NacosException e) {
             logger.warn("Failed to get " + identifier + " from nacos, cause: " + e.getMessage(), e);
         }
         return null;
     }
+
+    private String readMetaData(MetadataIdentifier identifier) throws NacosException {
+        String dataId = identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY);
+        Consumer<MetadataIdentifier> listener = changeListener;
+        if (listener != null) {
+            listen(dataId, identifier, listener);
+        }
+        return configService.getConfig(dataId, group, 1000 * 10);
+    }
+
+    private void listen(String dataId, MetadataIdentifier identifier, Consumer<MetadataIdentifier> listener) throws NacosException {
+        try {
+            listeners.get(dataId, () -> {
+                Listener configListener = new AbstractListener() {
+                    @Override
+                    public void receiveConfigInfo(String configInfo) {
+                        listener.accept(identifier);
+                    }
+                };
+                configService.addListener(dataId, group, configListener);
+                return configListener;
+            });
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof NacosException) {
+                throw (NacosException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.registry.metadata.impl;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * reads a batch of metadata with at most CONCURRENCY requests in flight, for the stores without a multi-get
+ */
+class ParallelMetaDataReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelMetaDataReader.class);
+
+    static final int CONCURRENCY = Math.max(1, Integer.getInteger("dubbo.admin.metadata.batch.concurrency", 16));
+
+    static final long TIMEOUT = Long.getLong("dubbo.admin.metadata.batch.timeout", 30);
+
+    private final ThreadPoolExecutor executor;
+
+    ParallelMetaDataReader(String store) {
+        executor = new ThreadPoolExecutor(CONCURRENCY, CONCURRENCY, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-" + store + "-metadata-%d").daemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @param reader returns null if the metadata does not exist, throws if it fails to read
+     * @return identifier --> metadata, null for the missing ones. The ones failed or not read in TIMEOUT seconds
+     * are not in the map
+     */
+    Map<MetadataIdentifier, String> read(Collection<MetadataIdentifier> keys, Reader reader) {
+        Map<MetadataIdentifier, String> result = Collections.synchronizedMap(new HashMap<>());
+        CountDownLatch done = new CountDownLatch(keys.size());
+        for (MetadataIdentifier key : keys) {
+            executor.execute(() -> {
+                try {
+                    result.put(key, reader.read(key));
+                } catch (Exception e) {
+                    logger.warn("Failed to read metadata of " + key, e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        await(done);
+        synchronized (result) {
+            return new HashMap<>(result);
+        }
+    }
+
+    interface Reader {
+
+        String read(MetadataIdentifier identifier) throws Exception;
+    }
+
+    static void await(CountDownLatch done) {
+        try {
+            if (!done.await(TIMEOUT, TimeUnit.SECONDS)) {
+                logger.warn("Timeout to read metadata, " + done.getCount() + " left");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
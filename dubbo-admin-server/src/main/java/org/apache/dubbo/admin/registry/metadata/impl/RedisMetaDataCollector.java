@@ -18,7 +18,6 @@
 package org.apache.dubbo.admin.registry.metadata.impl;
 
 
-import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.apache.dubbo.admin.registry.metadata.MetaDataCollector;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.metadata.report.identifier.KeyTypeEnum;
@@ -31,8 +30,17 @@ import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.util.JedisClusterCRC16;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.apache.dubbo.common.constants.CommonConstants.CLUSTER_KEY;
@@ -45,8 +53,13 @@ public class RedisMetaDataCollector implements MetaDataCollector {
 
     private final static Logger logger = LoggerFactory.getLogger(RedisMetaDataCollector.class);
     private final static String REDIS_DATABASE_KEY = "database";
+    /**
+     * keys of each MGET of a batch read, the MGETs are pipelined
+     */
+    private final static int MGET_SIZE = Math.max(1, Integer.getInteger("dubbo.admin.metadata.redis.mget.size", 256));
     private URL url;
     private JedisPool pool;
+    private JedisCluster jedisCluster;
     Set<HostAndPort> jedisClusterNodes;
     private int timeout;
     private String password;
@@ -72,6 +85,8 @@ public class RedisMetaDataCollector implements MetaDataCollector {
                 URL tmpUrl = url.setAddress(address);
                 jedisClusterNodes.add(new HostAndPort(tmpUrl.getHost(), tmpUrl.getPort()));
             }
+            // discovers the slots once, then keeps a pool of connections per node
+            jedisCluster = new JedisCluster(jedisClusterNodes, timeout, timeout, 2, password, new JedisPoolConfig());
         } else {
             int database = url.getParameter(REDIS_DATABASE_KEY, 0);
             pool = new JedisPool(new JedisPoolConfig(), url.getHost(), url.getPort(), timeout, url.getPassword(), database);
@@ -88,11 +103,89 @@ public class RedisMetaDataCollector implements MetaDataCollector {
         return doGetMetaData(key);
     }
 
+    @Override
+    public Map<MetadataIdentifier, String> getMetaData(Collection<MetadataIdentifier> keys) {
+        if (keys.isEmpty()) {
+            return new HashMap<>();
+        }
+        if (url.getParameter(CLUSTER_KEY, false)) {
+            return getClusterMetaData(keys);
+        }
+        List<MetadataIdentifier> identifiers = new ArrayList<>(keys);
+        List<Response<List<String>>> responses = new ArrayList<>();
+        try (Jedis jedis = pool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            for (int i = 0; i < identifiers.size(); i += MGET_SIZE) {
+                List<MetadataIdentifier> chunk = identifiers.subList(i, Math.min(i + MGET_SIZE, identifiers.size()));
+                responses.add(pipeline.mget(chunk.stream().map(key -> key.getUniqueKey(KeyTypeEnum.UNIQUE_KEY)).toArray(String[]::new)));
+            }
+            pipeline.sync();
+        } catch (Throwable e) {
+            logger.error("Failed to get " + keys.size() + " metadata from redis, cause: " + e.getMessage(), e);
+            throw new RpcException("Failed to get " + keys.size() + " metadata from redis, cause: " + e.getMessage(), e);
+        }
+        Map<MetadataIdentifier, String> result = new HashMap<>();
+        int index = 0;
+        for (Response<List<String>> response : responses) {
+            for (String value : response.get()) {
+                result.put(identifiers.get(index++), value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * group the keys by the node serving their slot, and pipeline the reads of each node.
+     * a key moved to another node meanwhile is read through the cluster client, which follows the redirection
+     */
+    private Map<MetadataIdentifier, String> getClusterMetaData(Collection<MetadataIdentifier> keys) {
+        Map<String, Jedis> connections = new HashMap<>();
+        Map<String, List<MetadataIdentifier>> nodeKeys = new HashMap<>();
+        Map<MetadataIdentifier, Response<String>> responses = new HashMap<>();
+        try {
+            for (MetadataIdentifier identifier : keys) {
+                Jedis jedis = jedisCluster.getConnectionFromSlot(JedisClusterCRC16.getSlot(getClusterKey(identifier)));
+                String node = jedis.getClient().getHost() + ":" + jedis.getClient().getPort();
+                if (connections.putIfAbsent(node, jedis) != null) {
+                    jedis.close();
+                }
+                nodeKeys.computeIfAbsent(node, k -> new ArrayList<>()).add(identifier);
+            }
+            for (Map.Entry<String, List<MetadataIdentifier>> entry : nodeKeys.entrySet()) {
+                Pipeline pipeline = connections.get(entry.getKey()).pipelined();
+                for (MetadataIdentifier identifier : entry.getValue()) {
+                    responses.put(identifier, pipeline.get(getClusterKey(identifier)));
+                }
+                pipeline.sync();
+            }
+        } catch (Throwable e) {
+            logger.error("Failed to get " + keys.size() + " metadata from redis cluster, cause: " + e.getMessage(), e);
+            throw new RpcException("Failed to get " + keys.size() + " metadata from redis cluster, cause: " + e.getMessage(), e);
+        } finally {
+            connections.values().forEach(Jedis::close);
+        }
+        Map<MetadataIdentifier, String> result = new HashMap<>();
+        for (Map.Entry<MetadataIdentifier, Response<String>> entry : responses.entrySet()) {
+            String value;
+            try {
+                value = entry.getValue().get();
+            } catch (JedisDataException e) {
+                value = doGetMetaData(entry.getKey());
+            }
+            result.put(entry.getKey(), value);
+        }
+        return result;
+    }
+
+    private static String getClusterKey(MetadataIdentifier identifier) {
+        return identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY) + META_DATA_STORE_TAG;
+    }
+
     private String doGetMetaData(MetadataIdentifier identifier) {
         String result = null;
         if (url.getParameter(CLUSTER_KEY, false)) {
-            try (JedisCluster jedisCluster = new JedisCluster(jedisClusterNodes, timeout, timeout, 2, password, new GenericObjectPoolConfig())) {
-                result = jedisCluster.get(identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY) + META_DATA_STORE_TAG);
+            try {
+                result = jedisCluster.get(getClusterKey(identifier));
             } catch (Throwable e) {
                 logger.error("Failed to get " + identifier + " from redis cluster, cause: " + e.getMessage(), e);
                 throw new RpcException("Failed to get " + identifier + " from redis cluster, cause: " + e.getMessage(), e);
@@ -19,6 +19,11 @@ package org.apache.dubbo.admin.registry.metadata.impl;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
 import org.apache.curator.retry.ExponentialBackoffRetry;
 import org.apache.dubbo.admin.common.util.Constants;
 import org.apache.dubbo.admin.registry.metadata.MetaDataCollector;
@@ -28,6 +33,31 @@ import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.metadata.report.identifier.KeyTypeEnum;
 import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.zookeeper.KeeperException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Reads the metadata from zookeeper. With the mirror parameter, the metadata subtree is mirrored into memory by a
+ * {@link TreeCache}, so that a lookup is served locally. Payloads larger than the lazy bytes, or beyond the max
+ * bytes kept in memory, are read from zookeeper when they are looked up.
+ * <p>
+ * The mirror bounds the memory, not the reads: the tree cache still downloads every payload when it starts and
+ * on every change, and drops the payloads it does not keep. The nodes and stats it holds are counted against the
+ * max bytes, once they exceed it the mirror is closed and the lookups read from zookeeper again.
+ */
 public class ZookeeperMetaDataCollector implements MetaDataCollector {
 
     private static final Logger logger = LoggerFactory.getLogger(ZookeeperMetaDataCollector.class);
@@ -35,6 +65,47 @@ public class ZookeeperMetaDataCollector implements MetaDataCollector {
     private URL url;
     private String root;
     private final static String DEFAULT_ROOT = "dubbo";
+    private final static String METADATA_PATH = "metadata";
+    private final static long DEFAULT_MIRROR_MAX_BYTES = 64 * 1024 * 1024;
+    private final static int DEFAULT_MIRROR_LAZY_BYTES = 64 * 1024;
+    /**
+     * estimated bytes held by the tree cache for a node besides its path: its ChildData, Stat and tree node
+     */
+    private final static int MIRROR_NODE_BYTES = 256;
+    /**
+     * identifiers remembered for the change listener, an identifier forgotten is refreshed once its cache entry expires
+     */
+    private final static int READ_PATHS_MAX_SIZE = Integer.getInteger("dubbo.admin.metadata.mirror.read-paths", 100000);
+    private volatile Consumer<MetadataIdentifier> changeListener;
+    /**
+     * paths with a pending watch, a watch is set once until it fires
+     */
+    private final Set<String> watchedPaths = ConcurrentHashMap.newKeySet();
+
+    private TreeCache mirror;
+    /**
+     * set once the mirror has loaded the subtree
+     */
+    private volatile boolean mirrored;
+    /**
+     * set once the mirror is closed for exceeding the max bytes
+     */
+    private volatile boolean mirrorClosed;
+    private long mirrorMaxBytes;
+    private int mirrorLazyBytes;
+    /**
+     * path --> payload kept in memory
+     */
+    private final Map<String, byte[]> payloads = new ConcurrentHashMap<>();
+    private final AtomicLong mirroredBytes = new AtomicLong();
+    /**
+     * estimated bytes of the nodes held by the tree cache
+     */
+    private final AtomicLong mirroredNodeBytes = new AtomicLong();
+    /**
+     * path --> identifier looked up, to tell the change listener which metadata a mirror event is about
+     */
+    private final Cache<String, MetadataIdentifier> readPaths = CacheBuilder.newBuilder().maximumSize(READ_PATHS_MAX_SIZE).build();
 
     @Override
     public void setUrl(URL url) {
@@ -55,6 +126,117 @@ public class ZookeeperMetaDataCollector implements MetaDataCollector {
         root = group;
         client = CuratorFrameworkFactory.newClient(url.getAddress(), new ExponentialBackoffRetry(1000, 3));
         client.start();
+        if (url.getParameter(Constants.MIRROR_KEY, false)) {
+            startMirror();
+        }
+    }
+
+    private void startMirror() {
+        mirrorMaxBytes = url.getParameter(Constants.MIRROR_MAX_BYTES_KEY, DEFAULT_MIRROR_MAX_BYTES);
+        mirrorLazyBytes = url.getParameter(Constants.MIRROR_LAZY_BYTES_KEY, DEFAULT_MIRROR_LAZY_BYTES);
+        // the stats of every node are cached, the payloads are kept by the listener under the memory cap,
+        // every payload is still read by the tree cache
+        mirror = TreeCache.newBuilder(client, toRootDir() + METADATA_PATH).setCacheData(false).build();
+        mirror.getListenable().addListener((curator, event) -> onMirrorEvent(event));
+        try {
+            mirror.start();
+        } catch (Exception e) {
+            logger.error("Failed to mirror metadata of " + toRootDir() + METADATA_PATH + ", reading from zookeeper", e);
+        }
+    }
+
+    private void onMirrorEvent(TreeCacheEvent event) {
+        switch (event.getType()) {
+            case NODE_ADDED:
+                if (mirroredNodeBytes.addAndGet(nodeBytes(event.getData().getPath())) > mirrorMaxBytes) {
+                    closeMirror();
+                    return;
+                }
+                keep(event.getData());
+                notifyChange(event.getData().getPath());
+                break;
+            case NODE_UPDATED:
+                keep(event.getData());
+                notifyChange(event.getData().getPath());
+                break;
+            case NODE_REMOVED:
+                mirroredNodeBytes.addAndGet(-nodeBytes(event.getData().getPath()));
+                forget(event.getData().getPath());
+                notifyChange(event.getData().getPath());
+                break;
+            case INITIALIZED:
+                if (mirrorClosed) {
+                    return;
+                }
+                mirrored = true;
+                logger.info("Mirrored metadata of " + toRootDir() + METADATA_PATH + ", " + payloads.size()
+                        + " payloads in " + mirroredBytes.get() + " bytes, nodes in about " + mirroredNodeBytes.get() + " bytes");
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static long nodeBytes(String path) {
+        return MIRROR_NODE_BYTES + 2L * path.length();
+    }
+
+    private synchronized void closeMirror() {
+        if (mirrorClosed) {
+            return;
+        }
+        mirrorClosed = true;
+        logger.warn("Metadata of " + toRootDir() + METADATA_PATH + " exceed " + mirrorMaxBytes
+                + " mirrored bytes, reading from zookeeper instead");
+        mirrored = false;
+        mirror.close();
+        payloads.clear();
+        mirroredBytes.set(0);
+        mirroredNodeBytes.set(0);
+    }
+
+    private void keep(ChildData data) {
+        forget(data.getPath());
+        byte[] bytes = data.getData();
+        if (bytes == null || bytes.length > mirrorLazyBytes
+                || mirroredNodeBytes.get() + mirroredBytes.get() + bytes.length > mirrorMaxBytes) {
+            return;
+        }
+        payloads.put(data.getPath(), bytes);
+        mirroredBytes.addAndGet(bytes.length);
+    }
+
+    private void forget(String path) {
+        byte[] bytes = payloads.remove(path);
+        if (bytes != null) {
+            mirroredBytes.addAndGet(-bytes.length);
+        }
+    }
+
+    private void notifyChange(String path) {
+        Consumer<MetadataIdentifier> listener = changeListener;
+        MetadataIdentifier identifier = readPaths.getIfPresent(path);
+        if (listener != null && identifier != null) {
+            listener.accept(identifier);
+        }
+    }
+
+    public boolean isMirrored() {
+        return mirrored;
+    }
+
+    /**
+     * @return bytes of the payloads kept in memory
+     */
+    public long getMirroredBytes() {
+        return mirroredBytes.get();
+    }
+
+    /**
+     * @return estimated bytes of the nodes and stats held by the mirror
+     */
+    public long getMirroredNodeBytes() {
+        return mirroredNodeBytes.get();
     }
 
 
@@ -68,6 +250,77 @@ public class ZookeeperMetaDataCollector implements MetaDataCollector {
         return doGetMetadata(key);
     }
 
+    /**
+     * read the nodes in the background, with at most ParallelMetaDataReader.CONCURRENCY reads in flight
+     */
+    @Override
+    public Map<MetadataIdentifier, String> getMetaData(Collection<MetadataIdentifier> keys) {
+        Map<MetadataIdentifier, String> result = Collections.synchronizedMap(new HashMap<>());
+        Collection<MetadataIdentifier> remote = keys;
+        boolean fromMirror = mirrored;
+        if (fromMirror) {
+            remote = new ArrayList<>();
+            for (MetadataIdentifier identifier : keys) {
+                String path = getNodePath(identifier);
+                if (mirror.getCurrentData(path) == null) {
+                    result.put(identifier, null);
+                    continue;
+                }
+                readPaths.put(path, identifier);
+                byte[] payload = payloads.get(path);
+                if (payload != null) {
+                    result.put(identifier, new String(payload));
+                } else {
+                    remote.add(identifier);
+                }
+            }
+        }
+        Semaphore inFlight = new Semaphore(ParallelMetaDataReader.CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(remote.size());
+        Consumer<MetadataIdentifier> listener = changeListener;
+        try {
+            for (MetadataIdentifier identifier : remote) {
+                String path = getNodePath(identifier);
+                inFlight.acquire();
+                try {
+                    CuratorWatcher watcher = listener != null && !fromMirror && watchedPaths.add(path) ? event -> {
+                        watchedPaths.remove(path);
+                        listener.accept(identifier);
+                    } : null;
+                    (watcher != null ? client.getData().usingWatcher(watcher) : client.getData()).inBackground((curator, event) -> {
+                        inFlight.release();
+                        onLoaded(identifier, event, watcher, result);
+                        done.countDown();
+                    }).forPath(path);
+                } catch (Exception e) {
+                    inFlight.release();
+                    done.countDown();
+                    logger.error("Failed to read metadata of " + identifier, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ParallelMetaDataReader.await(done);
+        synchronized (result) {
+            return new HashMap<>(result);
+        }
+    }
+
+    private void onLoaded(MetadataIdentifier identifier, CuratorEvent event, CuratorWatcher watcher, Map<MetadataIdentifier, String> result) throws Exception {
+        if (event.getResultCode() == KeeperException.Code.OK.intValue()) {
+            result.put(identifier, new String(event.getData()));
+        } else if (event.getResultCode() == KeeperException.Code.NONODE.intValue()) {
+            result.put(identifier, null);
+            if (watcher != null) {
+                // a data watch is not left on a missing node, watch its creation instead
+                client.checkExists().usingWatcher(watcher).inBackground().forPath(event.getPath());
+            }
+        } else {
+            logger.error("Failed to read metadata of " + identifier + ", code: " + event.getResultCode());
+        }
+    }
+
     private String getNodePath(MetadataIdentifier metadataIdentifier) {
         return toRootDir() + metadataIdentifier.getUniqueKey(KeyTypeEnum.PATH);
     }
@@ -79,10 +332,30 @@ public class ZookeeperMetaDataCollector implements MetaDataCollector {
         return root + Constants.PATH_SEPARATOR;
     }
 
+    @Override
+    public boolean setChangeListener(Consumer<MetadataIdentifier> listener) {
+        this.changeListener = listener;
+        return true;
+    }
+
     private String doGetMetadata(MetadataIdentifier identifier) {
         //TODO error handing
         try {
             String path = getNodePath(identifier);
+            if (mirrored) {
+                return getMirroredMetadata(identifier, path);
+            }
+            Consumer<MetadataIdentifier> listener = changeListener;
+            if (listener != null && watchedPaths.add(path)) {
+                CuratorWatcher watcher = event -> {
+                    watchedPaths.remove(path);
+                    listener.accept(identifier);
+                };
+                if (client.checkExists().usingWatcher(watcher).forPath(path) == null) {
+                    return null;
+                }
+                return new String(client.getData().usingWatcher(watcher).forPath(path));
+            }
             if (client.checkExists().forPath(path) == null) {
                 return null;
             }
@@ -92,4 +365,23 @@ public class ZookeeperMetaDataCollector implements MetaDataCollector {
         }
         return null;
     }
+
+    /**
+     * a missing node is known without a round trip, a payload which is not kept is read from zookeeper
+     */
+    private String getMirroredMetadata(MetadataIdentifier identifier, String path) throws Exception {
+        if (mirror.getCurrentData(path) == null) {
+            return null;
+        }
+        readPaths.put(path, identifier);
+        byte[] payload = payloads.get(path);
+        if (payload != null) {
+            return new String(payload);
+        }
+        try {
+            return new String(client.getData().forPath(path));
+        } catch (KeeperException.NoNodeException e) {
+            return null;
+        }
+    }
 }
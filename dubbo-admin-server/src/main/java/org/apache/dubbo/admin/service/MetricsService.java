@@ -21,4 +21,9 @@ import org.apache.dubbo.admin.model.dto.RelationDTO;
 public interface MetricsService {
 
     RelationDTO getApplicationRelation();
+
+    /**
+     * @return version of the application relation, changes whenever the relation changes
+     */
+    long getApplicationRelationVersion();
 }
@@ -19,8 +19,12 @@ package org.apache.dubbo.admin.service;
 import org.apache.dubbo.admin.model.domain.Provider;
 import org.apache.dubbo.admin.model.dto.ServiceDTO;
 import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -32,6 +36,13 @@ public interface ProviderService {
 
     String getProviderMetaData(MetadataIdentifier providerIdentifier);
 
+    /**
+     * Get the metadata of a batch of providers and consumers at once
+     *
+     * @return identifier --> metadata, a metadata which failed to be read is not in the map
+     */
+    Map<MetadataIdentifier, String> getMetaData(Collection<MetadataIdentifier> identifiers);
+
     /**
      * Get all provider's service name
      *
@@ -96,4 +107,15 @@ public interface ProviderService {
      */
     Set<ServiceDTO> getServiceDTOS(String pattern, String filter, String env);
 
+    /**
+     * Get one page of service data objects, in the order of {@link ServiceDTO#compareTo}.
+     *
+     * @param pattern  {@code String} type of search
+     * @param filter   {@code String} input filter string
+     * @param env      {@code String}the environment of front end
+     * @param pageable page to get
+     * @return the page with the total count of services
+     */
+    Page<ServiceDTO> getServiceDTOS(String pattern, String filter, String env, Pageable pageable);
+
 }
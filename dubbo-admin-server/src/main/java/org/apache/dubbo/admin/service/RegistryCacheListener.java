@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service;
+
+import org.apache.dubbo.common.URL;
+
+/**
+ * listen url changes of the interface registry cache
+ */
+public interface RegistryCacheListener {
+
+    /**
+     * a url is added to the cache
+     *
+     * @param category category
+     * @param service  serviceKey
+     * @param id       hash of the url
+     * @param url      url
+     */
+    void onUrlAdded(String category, String service, String id, URL url);
+
+    /**
+     * a url is removed from the cache
+     *
+     * @param category category
+     * @param service  serviceKey
+     * @param id       hash of the url
+     * @param url      url
+     */
+    void onUrlRemoved(String category, String service, String id, URL url);
+}
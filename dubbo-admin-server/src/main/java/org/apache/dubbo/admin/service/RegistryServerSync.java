@@ -18,6 +18,7 @@ package org.apache.dubbo.admin.service;
 
 import org.apache.dubbo.admin.common.util.CoderUtil;
 import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.common.util.Pair;
 import org.apache.dubbo.admin.common.util.Tool;
 import org.apache.dubbo.admin.service.impl.InterfaceRegistryCache;
 import org.apache.dubbo.common.BaseServiceMetadata;
@@ -36,12 +37,9 @@ import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class RegistryServerSync implements DisposableBean, NotifyListener {
@@ -60,10 +58,11 @@ public class RegistryServerSync implements DisposableBean, NotifyListener {
             Constants.ENABLED_KEY, Constants.ANY_VALUE,
             Constants.CHECK_KEY, String.valueOf(false));
 
-    /**
-     * Make sure ID never changed when the same url notified many times
-     */
-    private final ConcurrentHashMap<String, String> URL_IDS_MAPPER = new ConcurrentHashMap<>();
+    private final AtomicLong notifications = new AtomicLong();
+
+    private final AtomicLong addedUrls = new AtomicLong();
+
+    private final AtomicLong removedUrls = new AtomicLong();
 
     /**
      * ConcurrentMap<category, ConcurrentMap<servicename, Map<MD5, URL>>>
@@ -95,6 +94,8 @@ public class RegistryServerSync implements DisposableBean, NotifyListener {
         // Map<category, Map<servicename, Map<Long, URL>>>
         final Map<String, Map<String, Map<String, URL>>> categories = new HashMap<>();
         String interfaceName = null;
+        int added = 0;
+        int removed = 0;
         for (URL url : urls) {
             String category = url.getUrlParam().getParameter(Constants.CATEGORY_KEY);
             if (category == null) {
@@ -102,21 +103,16 @@ public class RegistryServerSync implements DisposableBean, NotifyListener {
             }
             // NOTE: group and version in empty protocol is *
             if (Constants.EMPTY_PROTOCOL.equalsIgnoreCase(url.getProtocol())) {
-                ConcurrentMap<String, Map<String, URL>> services = interfaceRegistryCache.get(category);
-                if (services != null) {
-                    String group = url.getUrlParam().getParameter(Constants.GROUP_KEY);
-                    String version = url.getUrlParam().getParameter(Constants.VERSION_KEY);
-                    // NOTE: group and version in empty protocol is *
-                    if (!Constants.ANY_VALUE.equals(group) && !Constants.ANY_VALUE.equals(version)) {
-                        services.remove(getServiceInterface(url));
-                    } else {
-                        for (Map.Entry<String, Map<String, URL>> serviceEntry : services.entrySet()) {
-                            String service = serviceEntry.getKey();
-                            if (Tool.getInterface(service).equals(getServiceInterface(url))
-                                    && (Constants.ANY_VALUE.equals(group) || StringUtils.isEquals(group, Tool.getGroup(service)))
-                                    && (Constants.ANY_VALUE.equals(version) || StringUtils.isEquals(version, Tool.getVersion(service)))) {
-                                services.remove(service);
-                            }
+                String group = url.getUrlParam().getParameter(Constants.GROUP_KEY);
+                String version = url.getUrlParam().getParameter(Constants.VERSION_KEY);
+                // NOTE: group and version in empty protocol is *
+                if (!Constants.ANY_VALUE.equals(group) && !Constants.ANY_VALUE.equals(version)) {
+                    removed += interfaceRegistryCache.removeService(category, getServiceInterface(url));
+                } else {
+                    for (String service : interfaceRegistryCache.findServicesByInterface(category, getServiceInterface(url))) {
+                        if ((Constants.ANY_VALUE.equals(group) || StringUtils.isEquals(group, Tool.getGroup(service)))
+                                && (Constants.ANY_VALUE.equals(version) || StringUtils.isEquals(version, Tool.getVersion(service)))) {
+                            removed += interfaceRegistryCache.removeService(category, service);
                         }
                     }
                 }
@@ -138,35 +134,53 @@ public class RegistryServerSync implements DisposableBean, NotifyListener {
                     services.put(service, ids);
                 }
 
-                // Make sure we use the same ID for the same URL
-                if (URL_IDS_MAPPER.containsKey(url.toFullString())) {
-                    ids.put(URL_IDS_MAPPER.get(url.toFullString()), url);
-                } else {
-                    String md5 = CoderUtil.MD5_16bit(url.toFullString());
-                    ids.put(md5, url);
-                    URL_IDS_MAPPER.putIfAbsent(url.toFullString(), md5);
-                }
+                // The ID is a fingerprint of the full url, so the same url always gets the same ID
+                // without remembering urls that have already gone away
+                ids.put(CoderUtil.hash64(url.toFullString()), url);
             }
         }
-        if (categories.size() == 0) {
-            return;
-        }
         for (Map.Entry<String, Map<String, Map<String, URL>>> categoryEntry : categories.entrySet()) {
             String category = categoryEntry.getKey();
-            ConcurrentMap<String, Map<String, URL>> services = interfaceRegistryCache.get(category);
-            if (services == null) {
-                services = new ConcurrentHashMap<>();
-                interfaceRegistryCache.put(category, services);
-            } else {// Fix map can not be cleared when service is unregistered: when a unique “group/service:version” service is unregistered, but we still have the same services with different version or group, so empty protocols can not be invoked.
-                Set<String> keys = new HashSet<>(services.keySet());
-                for (String key : keys) {
-                    if (Tool.getInterface(key).equals(interfaceName) && !categoryEntry.getValue().containsKey(key)) {
-                        services.remove(key);
-                    }
+            // Fix map can not be cleared when service is unregistered: when a unique “group/service:version” service is unregistered, but we still have the same services with different version or group, so empty protocols can not be invoked.
+            for (String key : interfaceRegistryCache.findServicesByInterface(category, interfaceName)) {
+                if (!categoryEntry.getValue().containsKey(key)) {
+                    removed += interfaceRegistryCache.removeService(category, key);
                 }
             }
-            services.putAll(categoryEntry.getValue());
+            // only the difference against the cached urls is applied, so the cost follows the churn instead of the fleet size
+            for (Map.Entry<String, Map<String, URL>> serviceEntry : categoryEntry.getValue().entrySet()) {
+                Pair<Integer, Integer> changes = interfaceRegistryCache.putService(category, serviceEntry.getKey(), serviceEntry.getValue());
+                added += changes.getKey();
+                removed += changes.getValue();
+            }
         }
+        notifications.incrementAndGet();
+        addedUrls.addAndGet(added);
+        removedUrls.addAndGet(removed);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Notified " + urls.size() + " urls of " + interfaceName + ", added: " + added + ", removed: " + removed);
+        }
+    }
+
+    /**
+     * @return count of notifications received
+     */
+    public long getNotifications() {
+        return notifications.get();
+    }
+
+    /**
+     * @return count of urls added to the registry cache by notifications
+     */
+    public long getAddedUrls() {
+        return addedUrls.get();
+    }
+
+    /**
+     * @return count of urls removed from the registry cache by notifications
+     */
+    public long getRemovedUrls() {
+        return removedUrls.get();
     }
 
     private String getServiceInterface(URL url) {
@@ -25,7 +25,6 @@ import org.apache.dubbo.registry.Registry;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
 
 public class AbstractService {
 
@@ -41,10 +40,13 @@ public class AbstractService {
     protected MetaDataCollector metaDataCollector;
 
     @Autowired
-    private InterfaceRegistryCache interfaceRegistryCache;
+    protected InterfaceRegistryCache interfaceRegistryCache;
 
-    public ConcurrentMap<String, ConcurrentMap<String, Map<String, URL>>> getInterfaceRegistryCache() {
-        return interfaceRegistryCache.getRegistryCache();
+    /**
+     * @return consistent snapshot of the interface registry cache, category --> serviceKey --> hash --> URL
+     */
+    public Map<String, Map<String, Map<String, URL>>> getInterfaceRegistryCache() {
+        return interfaceRegistryCache.snapshot().getRegistryCache();
     }
 
 }
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.model.dto.RelationDTO;
+import org.apache.dubbo.admin.service.RegistryCacheListener;
+import org.apache.dubbo.common.URL;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * application dependency graph, maintained incrementally from the changes of {@link InterfaceRegistryCache}
+ * consumer application --> provider application, linked by the services they share
+ */
+@Component
+public class ApplicationRelationGraph implements RegistryCacheListener {
+
+    /**
+     * serviceKey --> application --> count of urls
+     */
+    private final Map<String, Map<String, Integer>> providers = new HashMap<>();
+
+    private final Map<String, Map<String, Integer>> consumers = new HashMap<>();
+
+    /**
+     * application --> count of services it provides / consumes
+     */
+    private final Map<String, Integer> providerApplications = new HashMap<>();
+
+    private final Map<String, Integer> consumerApplications = new HashMap<>();
+
+    /**
+     * consumer application --> provider application --> count of services linking them
+     */
+    private final Map<String, Map<String, Integer>> links = new HashMap<>();
+
+    /**
+     * bumped whenever a node or a link is added or removed. it starts from the boot time in micros, so that an etag
+     * of a previous run is never taken as current
+     */
+    private long version = System.currentTimeMillis() * 1000;
+
+    private long relationVersion = -1;
+
+    private RelationDTO relation;
+
+    @Autowired
+    private InterfaceRegistryCache interfaceRegistryCache;
+
+    @PostConstruct
+    public void init() {
+        interfaceRegistryCache.addListener(this);
+    }
+
+    @Override
+    public synchronized void onUrlAdded(String category, String service, String id, URL url) {
+        String application = url.getParameter(Constants.APPLICATION_KEY);
+        if (application == null) {
+            return;
+        }
+        if (Constants.PROVIDERS_CATEGORY.equals(category)) {
+            if (increase(providers.computeIfAbsent(service, k -> new HashMap<>()), application)) {
+                increase(providerApplications, application);
+                Map<String, Integer> consumerApps = consumers.get(service);
+                if (consumerApps != null) {
+                    consumerApps.keySet().forEach(consumer -> link(consumer, application));
+                }
+                version++;
+            }
+        } else if (Constants.CONSUMERS_CATEGORY.equals(category)) {
+            if (increase(consumers.computeIfAbsent(service, k -> new HashMap<>()), application)) {
+                increase(consumerApplications, application);
+                Map<String, Integer> providerApps = providers.get(service);
+                if (providerApps != null) {
+                    providerApps.keySet().forEach(provider -> link(application, provider));
+                }
+                version++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onUrlRemoved(String category, String service, String id, URL url) {
+        String application = url.getParameter(Constants.APPLICATION_KEY);
+        if (application == null) {
+            return;
+        }
+        if (Constants.PROVIDERS_CATEGORY.equals(category)) {
+            if (decrease(providers, service, application)) {
+                decrease(providerApplications, application);
+                Map<String, Integer> consumerApps = consumers.get(service);
+                if (consumerApps != null) {
+                    consumerApps.keySet().forEach(consumer -> unlink(consumer, application));
+                }
+                version++;
+            }
+        } else if (Constants.CONSUMERS_CATEGORY.equals(category)) {
+            if (decrease(consumers, service, application)) {
+                decrease(consumerApplications, application);
+                Map<String, Integer> providerApps = providers.get(service);
+                if (providerApps != null) {
+                    providerApps.keySet().forEach(provider -> unlink(application, provider));
+                }
+                version++;
+            }
+        }
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * nodes are indexed consumer applications first, then applications which only provide services
+     * the result is shared until the graph changes, callers must not modify it
+     */
+    public synchronized RelationDTO getRelation() {
+        if (relation != null && relationVersion == version) {
+            return relation;
+        }
+        Map<String, RelationDTO.Node> nodeMap = new HashMap<>();
+        List<RelationDTO.Node> nodes = new ArrayList<>();
+        for (String application : new TreeSet<>(consumerApplications.keySet())) {
+            int category = providerApplications.containsKey(application)
+                    ? RelationDTO.CONSUMER_AND_PROVIDER_CATEGORIES.getIndex()
+                    : RelationDTO.CONSUMER_CATEGORIES.getIndex();
+            RelationDTO.Node node = new RelationDTO.Node(nodes.size(), application, category);
+            nodeMap.put(application, node);
+            nodes.add(node);
+        }
+        for (String application : new TreeSet<>(providerApplications.keySet())) {
+            if (!nodeMap.containsKey(application)) {
+                RelationDTO.Node node = new RelationDTO.Node(nodes.size(), application, RelationDTO.PROVIDER_CATEGORIES.getIndex());
+                nodeMap.put(application, node);
+                nodes.add(node);
+            }
+        }
+        List<RelationDTO.Link> linkList = new ArrayList<>();
+        links.forEach((consumer, targets) -> targets.keySet().forEach(provider ->
+                linkList.add(new RelationDTO.Link(nodeMap.get(consumer).getIndex(), nodeMap.get(provider).getIndex()))));
+        relation = new RelationDTO(nodes, linkList);
+        relationVersion = version;
+        return relation;
+    }
+
+    private void link(String consumer, String provider) {
+        increase(links.computeIfAbsent(consumer, k -> new HashMap<>()), provider);
+    }
+
+    private void unlink(String consumer, String provider) {
+        decrease(links, consumer, provider);
+    }
+
+    /**
+     * @return true if the key is new
+     */
+    private static boolean increase(Map<String, Integer> counts, String key) {
+        return counts.merge(key, 1, Integer::sum) == 1;
+    }
+
+    /**
+     * @return true if the key is gone
+     */
+    private static boolean decrease(Map<String, Integer> counts, String key) {
+        Integer count = counts.get(key);
+        if (count == null) {
+            return false;
+        }
+        if (count <= 1) {
+            counts.remove(key);
+            return true;
+        }
+        counts.put(key, count - 1);
+        return false;
+    }
+
+    private static boolean decrease(Map<String, Map<String, Integer>> counts, String key, String subKey) {
+        Map<String, Integer> subCounts = counts.get(key);
+        if (subCounts == null || !decrease(subCounts, subKey)) {
+            return false;
+        }
+        if (subCounts.isEmpty()) {
+            counts.remove(key);
+        }
+        return true;
+    }
+}
@@ -35,13 +35,13 @@ public class ConsumerServiceImpl extends AbstractService implements ConsumerServ
 
     @Override
     public List<Consumer> findByService(String service) {
-        return SyncUtils.url2ConsumerList(findConsumerUrlByService(service));
+        return interfaceRegistryCache.toConsumers(findConsumerUrlByService(service));
     }
 
 
     @Override
     public List<Consumer> findAll() {
-        return SyncUtils.url2ConsumerList(findAllConsumerUrl());
+        return interfaceRegistryCache.toConsumers(findAllConsumerUrl());
     }
 
     @Override
@@ -60,16 +60,12 @@ public class ConsumerServiceImpl extends AbstractService implements ConsumerServ
 
     @Override
     public List<Consumer> findByAddress(String consumerAddress) {
-        return SyncUtils.url2ConsumerList(findConsumerUrlByAddress(consumerAddress));
+        return interfaceRegistryCache.toConsumers(findConsumerUrlByAddress(consumerAddress));
     }
 
 
     private Map<String, URL> findConsumerUrlByAddress(String address) {
-        Map<String, String> filter = new HashMap<String, String>();
-        filter.put(Constants.CATEGORY_KEY, Constants.CONSUMERS_CATEGORY);
-        filter.put(SyncUtils.ADDRESS_FILTER_KEY, address);
-
-        return SyncUtils.filterFromCategory(getInterfaceRegistryCache(), filter);
+        return interfaceRegistryCache.findByAddress(Constants.CONSUMERS_CATEGORY, address);
     }
 
     public Map<String, URL> findConsumerUrlByService(String service) {
@@ -82,10 +78,7 @@ public class ConsumerServiceImpl extends AbstractService implements ConsumerServ
 
     @Override
     public String findVersionInApplication(String application) {
-        Map<String, String> filter = new HashMap<>();
-        filter.put(Constants.CATEGORY_KEY, Constants.CONSUMERS_CATEGORY);
-        filter.put(Constants.APPLICATION_KEY, application);
-        Map<String, URL> stringURLMap = SyncUtils.filterFromCategory(getInterfaceRegistryCache(), filter);
+        Map<String, URL> stringURLMap = interfaceRegistryCache.findByApplication(Constants.CONSUMERS_CATEGORY, application);
         if (stringURLMap == null || stringURLMap.isEmpty()) {
             throw new ParamValidationException("there is no consumer for application: " + application);
         }
@@ -20,20 +20,55 @@ package org.apache.dubbo.admin.service.impl;
 import org.apache.dubbo.admin.common.util.Constants;
 import org.apache.dubbo.admin.common.util.Tool;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.config.ApplicationConfig;
 import org.apache.dubbo.config.ReferenceConfig;
 import org.apache.dubbo.config.RegistryConfig;
 import org.apache.dubbo.registry.Registry;
 import org.apache.dubbo.rpc.service.GenericService;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class GenericServiceImpl {
+    private static final Logger logger = LoggerFactory.getLogger(GenericServiceImpl.class);
+
+    private static final long MAX_CLEAN_UP_PERIOD_MILLIS = 60 * 1000;
+
     private ApplicationConfig applicationConfig;
     private final Registry registry;
 
+    @Value("${admin.service-test.reference.max-size:64}")
+    private long referenceMaxSize;
+
+    @Value("${admin.service-test.reference.idle-timeout-millis:600000}")
+    private long referenceIdleTimeoutMillis;
+
+    /**
+     * serviceKey --> generic reference, destroyed once it is evicted and its calls in flight are done
+     */
+    private Cache<String, GenericReference> references;
+
+    /**
+     * cleans up the idle references, expiration alone only happens on an access of the cache
+     */
+    private ScheduledExecutorService cleaner;
+
     public GenericServiceImpl(Registry registry) {
         this.registry = registry;
     }
@@ -45,6 +80,45 @@ public class GenericServiceImpl {
         applicationConfig = new ApplicationConfig();
         applicationConfig.setName("dubbo-admin");
         applicationConfig.setRegistry(registryConfig);
+
+        RemovalListener<String, GenericReference> onRemoval = notification -> {
+            logger.debug("Evict generic reference of " + notification.getKey() + ", cause: " + notification.getCause());
+            notification.getValue().evict();
+        };
+        references = CacheBuilder.newBuilder()
+                .maximumSize(referenceMaxSize)
+                .expireAfterAccess(referenceIdleTimeoutMillis, TimeUnit.MILLISECONDS)
+                .removalListener(onRemoval)
+                .recordStats()
+                .build();
+        long period = Math.max(1, Math.min(referenceIdleTimeoutMillis, MAX_CLEAN_UP_PERIOD_MILLIS));
+        cleaner = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-generic-reference-cleaner").daemon(true).build());
+        cleaner.scheduleWithFixedDelay(references::cleanUp, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+        if (references != null) {
+            references.invalidateAll();
+        }
+    }
+
+    /**
+     * @return hits, misses and creation time of the generic references
+     */
+    public CacheStats getReferenceStats() {
+        return references.stats();
+    }
+
+    /**
+     * @return number of the generic references cached
+     */
+    public long getReferenceCount() {
+        return references.size();
     }
 
     private RegistryConfig buildRegistryConfig(Registry registry) {
@@ -63,11 +137,31 @@ public class GenericServiceImpl {
     }
 
     public Object invoke(String service, String method, String[] parameterTypes, Object[] params) {
-
-        ReferenceConfig<GenericService> reference = new ReferenceConfig<>();
         String group = Tool.getGroup(service);
         String version = Tool.getVersion(service);
         String intf = Tool.getInterface(service);
+        String key = (group == null ? "" : group + "/") + intf + (version == null ? "" : ":" + version);
+        removeGenericSymbol(parameterTypes);
+        GenericReference reference;
+        do {
+            // a reference evicted meanwhile is not used, the next get creates a new one
+            try {
+                reference = references.get(key, () -> createReference(intf, group, version));
+            } catch (ExecutionException | UncheckedExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+            }
+        } while (!reference.acquire());
+        try {
+            return reference.service.$invoke(method, parameterTypes, params);
+        } finally {
+            reference.release();
+        }
+    }
+
+    GenericReference createReference(String intf, String group, String version) {
+        long start = System.currentTimeMillis();
+        ReferenceConfig<GenericService> reference = new ReferenceConfig<>();
         reference.setGeneric(true);
         reference.setApplication(applicationConfig);
         reference.setInterface(intf);
@@ -75,12 +169,54 @@ public class GenericServiceImpl {
         reference.setGroup(group);
         //Keep it consistent with the ConfigManager cache
         reference.setSticky(false);
+        GenericService service;
         try {
-            removeGenericSymbol(parameterTypes);
-            GenericService genericService = reference.get();
-            return genericService.$invoke(method, parameterTypes, params);
-        } finally {
+            service = reference.get();
+        } catch (RuntimeException e) {
             reference.destroy();
+            throw e;
+        }
+        logger.debug("Create generic reference of " + intf + " in " + (System.currentTimeMillis() - start) + "ms");
+        return new GenericReference(service, reference::destroy);
+    }
+
+    /**
+     * a generic reference with the number of its calls in flight, so that an eviction does not destroy it under a call
+     */
+    static class GenericReference {
+
+        private final GenericService service;
+
+        private final Runnable destroyer;
+
+        private int inFlight;
+
+        private boolean evicted;
+
+        GenericReference(GenericService service, Runnable destroyer) {
+            this.service = service;
+            this.destroyer = destroyer;
+        }
+
+        synchronized boolean acquire() {
+            if (evicted) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        }
+
+        synchronized void release() {
+            if (--inFlight == 0 && evicted) {
+                destroyer.run();
+            }
+        }
+
+        synchronized void evict() {
+            evicted = true;
+            if (inFlight == 0) {
+                destroyer.run();
+            }
         }
     }
 
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.metadata.MetadataInfo;
+import org.apache.dubbo.registry.client.InstanceAddressURL;
+import org.apache.dubbo.registry.client.metadata.ServiceInstanceMetadataUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * share the metadata, urls and url lists of instances in {@link InstanceRegistryCache}
+ * instances of one application reporting the same revision share one {@link MetadataInfo},
+ * and the views built from a url are kept with the shared url.
+ * intern and release are called under the lock of the cache, views may be got concurrently
+ */
+class InstanceMetadataInterner {
+
+    /**
+     * appName:revision --> metadata
+     */
+    private final Map<String, Shared<MetadataInfo>> revisions = new HashMap<>();
+
+    private final ConcurrentMap<InstanceAddressURL, Shared<InstanceAddressURL>> urls = new ConcurrentHashMap<>();
+
+    private final Map<List<InstanceAddressURL>, Shared<List<InstanceAddressURL>>> lists = new HashMap<>();
+
+    List<InstanceAddressURL> intern(List<InstanceAddressURL> source) {
+        List<InstanceAddressURL> interned = new ArrayList<>(source.size());
+        for (InstanceAddressURL url : source) {
+            interned.add(internUrl(url));
+        }
+        Shared<List<InstanceAddressURL>> shared = lists.get(interned);
+        if (shared == null) {
+            shared = new Shared<>(Collections.unmodifiableList(interned));
+            lists.put(shared.value, shared);
+        } else {
+            // the list is shared, so are its urls
+            for (InstanceAddressURL url : interned) {
+                releaseUrl(url);
+            }
+        }
+        shared.references++;
+        return shared.value;
+    }
+
+    void release(List<InstanceAddressURL> list) {
+        Shared<List<InstanceAddressURL>> shared = lists.get(list);
+        if (shared == null || shared.value != list) {
+            return;
+        }
+        if (--shared.references == 0) {
+            lists.remove(list);
+            for (InstanceAddressURL url : list) {
+                releaseUrl(url);
+            }
+        }
+    }
+
+    /**
+     * @return view of the url for the service, built once per shared url
+     */
+    @SuppressWarnings("unchecked")
+    <T> T getView(InstanceAddressURL url, String service, BiFunction<String, InstanceAddressURL, T> builder) {
+        Shared<InstanceAddressURL> shared = urls.get(url);
+        if (shared == null || shared.value != url) {
+            return builder.apply(service, url);
+        }
+        return (T) shared.views.computeIfAbsent(service, key -> builder.apply(key, url));
+    }
+
+    int getRevisionCount() {
+        return revisions.size();
+    }
+
+    int getUrlCount() {
+        return urls.size();
+    }
+
+    private InstanceAddressURL internUrl(InstanceAddressURL url) {
+        Shared<InstanceAddressURL> shared = urls.get(url);
+        if (shared != null) {
+            if (!Objects.equals(getRevision(shared.value), getRevision(url))) {
+                // not expected as the revision is a part of the instance, keep it apart
+                return url;
+            }
+            shared.references++;
+            return shared.value;
+        }
+        InstanceAddressURL interned = url;
+        MetadataInfo metadata = internMetadata(url);
+        if (metadata != null && metadata != url.getMetadataInfo()) {
+            interned = new InstanceAddressURL(url.getInstance(), metadata);
+        }
+        shared = new Shared<>(interned);
+        shared.references++;
+        urls.put(interned, shared);
+        return interned;
+    }
+
+    private void releaseUrl(InstanceAddressURL url) {
+        Shared<InstanceAddressURL> shared = urls.get(url);
+        if (shared == null || shared.value != url) {
+            return;
+        }
+        if (--shared.references == 0) {
+            urls.remove(url);
+            String key = getRevisionKey(url);
+            Shared<MetadataInfo> revision = key == null ? null : revisions.get(key);
+            if (revision != null && --revision.references == 0) {
+                revisions.remove(key);
+            }
+        }
+    }
+
+    private MetadataInfo internMetadata(InstanceAddressURL url) {
+        String key = getRevisionKey(url);
+        if (key == null) {
+            return null;
+        }
+        Shared<MetadataInfo> shared = revisions.computeIfAbsent(key, k -> new Shared<>(url.getMetadataInfo()));
+        shared.references++;
+        return shared.value;
+    }
+
+    private static String getRevisionKey(InstanceAddressURL url) {
+        String revision = getRevision(url);
+        return revision == null ? null : url.getInstance().getServiceName() + ":" + revision;
+    }
+
+    private static String getRevision(InstanceAddressURL url) {
+        return url.getMetadataInfo() == null ? null : ServiceInstanceMetadataUtils.getExportedServicesRevision(url.getInstance());
+    }
+
+    private static class Shared<T> {
+
+        private final T value;
+
+        private final ConcurrentMap<String, Object> views = new ConcurrentHashMap<>();
+
+        private int references;
+
+        Shared(T value) {
+            this.value = value;
+        }
+    }
+}
@@ -17,29 +17,86 @@
 
 package org.apache.dubbo.admin.service.impl;
 
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.common.util.Pair;
 import org.apache.dubbo.admin.service.RegistryCache;
+import org.apache.dubbo.admin.service.RegistryCacheListener;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.CollectionUtils;
 import org.apache.dubbo.registry.client.InstanceAddressURL;
 
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
  * instance registry url {@link InstanceAddressURL} cache
  * key --> category,value --> ConcurrentMap<appName, Map<serviceKey, List<InstanceAddressURL>>>
+ * providers are also indexed by serviceKey and by host
  */
 @Component
 public class InstanceRegistryCache implements RegistryCache<String, ConcurrentMap<String, Map<String, List<InstanceAddressURL>>>> {
 
+    private static final Logger logger = LoggerFactory.getLogger(InstanceRegistryCache.class);
+
     private final ConcurrentMap<String, ConcurrentMap<String, Map<String, List<InstanceAddressURL>>>> registryCache = new ConcurrentHashMap<>();
 
+    /**
+     * serviceKey --> appName --> provider urls
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, List<InstanceAddressURL>>> services = new ConcurrentHashMap<>();
+
+    /**
+     * host --> serviceKey --> appName --> provider urls on the host
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, List<InstanceAddressURL>>>> hosts = new ConcurrentHashMap<>();
+
+    private final InstanceMetadataInterner interner = new InstanceMetadataInterner();
+
+    /**
+     * appName --> serviceKeys restored from a snapshot and not yet confirmed by the registry
+     */
+    private final Map<String, Set<String>> staleProviders = new HashMap<>();
+
+    private final List<RegistryCacheListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * notifications of the listeners queued by the writers in the order of the changes
+     */
+    private final Queue<Runnable> pendingEvents = new ConcurrentLinkedQueue<>();
+
     @Override
     public void put(String key, ConcurrentMap<String, Map<String, List<InstanceAddressURL>>> value) {
-        registryCache.put(key, value);
+        synchronized (registryCache) {
+            if (Constants.PROVIDERS_CATEGORY.equals(key)) {
+                value.forEach((application, serviceMap) -> serviceMap.replaceAll((serviceKey, urls) -> interner.intern(urls)));
+            }
+            ConcurrentMap<String, Map<String, List<InstanceAddressURL>>> previous = registryCache.put(key, value);
+            if (Constants.PROVIDERS_CATEGORY.equals(key)) {
+                staleProviders.clear();
+                if (previous != null) {
+                    previous.forEach((application, serviceMap) -> serviceMap.forEach((serviceKey, urls) -> {
+                        unindex(application, serviceKey, urls);
+                        interner.release(urls);
+                    }));
+                }
+                value.forEach((application, serviceMap) -> serviceMap.forEach((serviceKey, urls) -> index(application, serviceKey, urls)));
+            }
+        }
     }
 
     @Override
@@ -52,4 +109,225 @@ public class InstanceRegistryCache implements RegistryCache<String, ConcurrentMa
                                                                                         Function<? super String, ? extends ConcurrentMap<String, Map<String, List<InstanceAddressURL>>>> mappingFunction) {
         return registryCache.computeIfAbsent(key, mappingFunction);
     }
+
+    /**
+     * replace the provider urls of a service of an application, empty urls remove the service.
+     * the urls are interned, instances reporting the same revision share their metadata
+     */
+    public void putProviders(String application, String serviceKey, List<InstanceAddressURL> urls) {
+        putProviders(application, Collections.singletonMap(serviceKey, urls));
+    }
+
+    /**
+     * replace the provider urls of several services of an application at once
+     *
+     * @param providers serviceKey --> provider urls, empty urls remove the service
+     */
+    public void putProviders(String application, Map<String, List<InstanceAddressURL>> providers) {
+        synchronized (registryCache) {
+            doPutProviders(application, providers);
+        }
+        firePendingEvents();
+    }
+
+    private void doPutProviders(String application, Map<String, List<InstanceAddressURL>> providers) {
+        Map<String, List<InstanceAddressURL>> serviceMap = registryCache
+                .computeIfAbsent(Constants.PROVIDERS_CATEGORY, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(application, key -> new ConcurrentHashMap<>());
+        Set<String> stale = staleProviders.get(application);
+        if (stale != null) {
+            stale.removeAll(providers.keySet());
+            if (stale.isEmpty()) {
+                staleProviders.remove(application);
+            }
+        }
+        providers.forEach((serviceKey, urls) -> {
+            List<InstanceAddressURL> previous;
+            if (CollectionUtils.isEmpty(urls)) {
+                previous = serviceMap.remove(serviceKey);
+            } else {
+                urls = interner.intern(urls);
+                previous = serviceMap.put(serviceKey, urls);
+            }
+            if (previous != null) {
+                unindex(application, serviceKey, previous);
+                interner.release(previous);
+            }
+            if (CollectionUtils.isNotEmpty(urls)) {
+                index(application, serviceKey, urls);
+            }
+            if (!listeners.isEmpty()) {
+                queueChanges(serviceKey, previous, urls);
+            }
+        });
+    }
+
+    /**
+     * put the provider urls of an application restored from a snapshot, except the services the registry has already notified.
+     * the services stay stale until the registry notifies them, or they are removed by {@link #removeStaleProviders()}
+     */
+    public void restoreProviders(String application, Map<String, List<InstanceAddressURL>> providers) {
+        synchronized (registryCache) {
+            ConcurrentMap<String, Map<String, List<InstanceAddressURL>>> appServiceMap = registryCache.get(Constants.PROVIDERS_CATEGORY);
+            Map<String, List<InstanceAddressURL>> serviceMap = appServiceMap == null ? null : appServiceMap.get(application);
+            Map<String, List<InstanceAddressURL>> restored = new HashMap<>(providers);
+            if (serviceMap != null) {
+                restored.keySet().removeAll(serviceMap.keySet());
+            }
+            if (restored.isEmpty()) {
+                return;
+            }
+            doPutProviders(application, restored);
+            staleProviders.computeIfAbsent(application, key -> new HashSet<>()).addAll(restored.keySet());
+        }
+        firePendingEvents();
+    }
+
+    public boolean isStale() {
+        synchronized (registryCache) {
+            return !staleProviders.isEmpty();
+        }
+    }
+
+    /**
+     * remove the provider urls restored from a snapshot which the registry has not notified
+     *
+     * @return count of removed services
+     */
+    public int removeStaleProviders() {
+        int count = 0;
+        synchronized (registryCache) {
+            for (Map.Entry<String, Set<String>> entry : new HashMap<>(staleProviders).entrySet()) {
+                Map<String, List<InstanceAddressURL>> removed = new HashMap<>();
+                entry.getValue().forEach(serviceKey -> removed.put(serviceKey, Collections.emptyList()));
+                doPutProviders(entry.getKey(), removed);
+                count += removed.size();
+            }
+        }
+        firePendingEvents();
+        return count;
+    }
+
+    /**
+     * Add a listener of provider url changes, the id of a url is its address. The urls already cached are replayed
+     * to it as added under the lock, the changes are notified after the lock is released.
+     */
+    public void addListener(RegistryCacheListener listener) {
+        synchronized (registryCache) {
+            listeners.add(listener);
+            ConcurrentMap<String, Map<String, List<InstanceAddressURL>>> appServiceMap = registryCache.get(Constants.PROVIDERS_CATEGORY);
+            if (appServiceMap != null) {
+                appServiceMap.forEach((application, serviceMap) -> serviceMap.forEach((serviceKey, urls) ->
+                        urls.forEach(url -> listener.onUrlAdded(Constants.PROVIDERS_CATEGORY, serviceKey, url.getAddress(), url))));
+            }
+        }
+    }
+
+    /**
+     * queue the difference of the urls of a service under the lock, for the listeners added so far
+     */
+    private void queueChanges(String serviceKey, List<InstanceAddressURL> previous, List<InstanceAddressURL> urls) {
+        Set<InstanceAddressURL> before = previous == null ? Collections.emptySet() : new HashSet<>(previous);
+        Set<InstanceAddressURL> after = urls == null ? Collections.emptySet() : new HashSet<>(urls);
+        RegistryCacheListener[] targets = listeners.toArray(new RegistryCacheListener[0]);
+        pendingEvents.add(() -> {
+            for (RegistryCacheListener listener : targets) {
+                try {
+                    before.stream().filter(url -> !after.contains(url))
+                            .forEach(url -> listener.onUrlRemoved(Constants.PROVIDERS_CATEGORY, serviceKey, url.getAddress(), url));
+                    after.stream().filter(url -> !before.contains(url))
+                            .forEach(url -> listener.onUrlAdded(Constants.PROVIDERS_CATEGORY, serviceKey, url.getAddress(), url));
+                } catch (Exception e) {
+                    logger.error("Failed to notify provider changes of " + serviceKey, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * called by the writers after releasing the lock, the events are drained in the order they were queued
+     */
+    private void firePendingEvents() {
+        synchronized (pendingEvents) {
+            Runnable event;
+            while ((event = pendingEvents.poll()) != null) {
+                event.run();
+            }
+        }
+    }
+
+    /**
+     * @return appName --> provider urls of the service
+     */
+    public Map<String, List<InstanceAddressURL>> findProvidersByService(String serviceKey) {
+        Map<String, List<InstanceAddressURL>> ret = services.get(serviceKey);
+        return ret == null ? Collections.emptyMap() : ret;
+    }
+
+    /**
+     * @return serviceKey --> appName --> provider urls on the host
+     */
+    public Map<String, ? extends Map<String, List<InstanceAddressURL>>> findProvidersByHost(String host) {
+        Map<String, ? extends Map<String, List<InstanceAddressURL>>> ret = host == null ? null : hosts.get(host);
+        return ret == null ? Collections.emptyMap() : ret;
+    }
+
+    /**
+     * @return view of the url for the service, shared by the lookups of the same url and service
+     */
+    public <T> T getView(InstanceAddressURL url, String service, BiFunction<String, InstanceAddressURL, T> builder) {
+        return interner.getView(url, service, builder);
+    }
+
+    /**
+     * @return count of distinct metadata revisions --> count of distinct instance urls
+     */
+    public Pair<Integer, Integer> getInternedCounts() {
+        synchronized (registryCache) {
+            return new Pair<>(interner.getRevisionCount(), interner.getUrlCount());
+        }
+    }
+
+    public Set<String> findServices() {
+        return new HashSet<>(services.keySet());
+    }
+
+    /**
+     * @return hosts of the provider instances
+     */
+    public Set<String> findHosts() {
+        return new HashSet<>(hosts.keySet());
+    }
+
+    private void index(String application, String serviceKey, List<InstanceAddressURL> urls) {
+        services.computeIfAbsent(serviceKey, key -> new ConcurrentHashMap<>()).put(application, urls);
+        groupByHost(urls).forEach((host, hostUrls) -> hosts.computeIfAbsent(host, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(serviceKey, key -> new ConcurrentHashMap<>())
+                .put(application, hostUrls));
+    }
+
+    private void unindex(String application, String serviceKey, List<InstanceAddressURL> urls) {
+        services.computeIfPresent(serviceKey, (key, applications) -> {
+            applications.remove(application);
+            return applications.isEmpty() ? null : applications;
+        });
+        groupByHost(urls).keySet().forEach(host -> hosts.computeIfPresent(host, (key, serviceMap) -> {
+            serviceMap.computeIfPresent(serviceKey, (k, applications) -> {
+                applications.remove(application);
+                return applications.isEmpty() ? null : applications;
+            });
+            return serviceMap.isEmpty() ? null : serviceMap;
+        }));
+    }
+
+    private static Map<String, List<InstanceAddressURL>> groupByHost(List<InstanceAddressURL> urls) {
+        Map<String, List<InstanceAddressURL>> ret = new HashMap<>();
+        for (InstanceAddressURL url : urls) {
+            String host = url.getInstance().getHost();
+            if (host != null) {
+                ret.computeIfAbsent(host, key -> new ArrayList<>()).add(url);
+            }
+        }
+        return ret;
+    }
 }
@@ -21,11 +21,10 @@ import org.apache.dubbo.admin.common.util.Constants;
 import org.apache.dubbo.admin.model.domain.Provider;
 import org.apache.dubbo.admin.model.domain.RegistrySource;
 import org.apache.dubbo.common.utils.CollectionUtils;
-import org.apache.dubbo.metadata.MetadataInfo;
 import org.apache.dubbo.registry.client.InstanceAddressURL;
-import org.apache.dubbo.registry.client.ServiceInstance;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.springframework.stereotype.Component;
 
@@ -33,7 +32,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
 
 @Component
 public class InstanceRegistryQueryHelper {
@@ -46,18 +44,7 @@ public class InstanceRegistryQueryHelper {
 
 
     public Set<String> findServices() {
-        Set<String> services = Sets.newHashSet();
-        ConcurrentMap<String, Map<String, List<InstanceAddressURL>>> appInterfaceMap = instanceRegistryCache.get(Constants.PROVIDERS_CATEGORY);
-        if (appInterfaceMap == null) {
-            return services;
-        }
-        appInterfaceMap.values().forEach(serviceUrlMap ->
-                serviceUrlMap.forEach((service, urls) -> {
-                    if (CollectionUtils.isNotEmpty(urls)) {
-                        services.add(service);
-                    }
-                }));
-        return services;
+        return instanceRegistryCache.findServices();
     }
 
     public Set<String> findApplications() {
@@ -68,40 +55,36 @@ public class InstanceRegistryQueryHelper {
         return Sets.newHashSet(appInterfaceMap.keySet());
     }
 
-    public List<Provider> findByService(String serviceName) {
+    /**
+     * @return application --> services it provides
+     */
+    public Map<String, Set<String>> findApplicationServices() {
+        Map<String, Set<String>> ret = Maps.newHashMap();
         ConcurrentMap<String, Map<String, List<InstanceAddressURL>>> appInterfaceMap = instanceRegistryCache.get(Constants.PROVIDERS_CATEGORY);
         if (appInterfaceMap == null) {
-            return Lists.newArrayList();
+            return ret;
         }
-        List<InstanceAddressURL> providerUrls = Lists.newArrayList();
-        appInterfaceMap.values().forEach(serviceUrlMap ->
+        appInterfaceMap.forEach((application, serviceUrlMap) ->
                 serviceUrlMap.forEach((service, urls) -> {
-                    if (CollectionUtils.isNotEmpty(urls) && service.equals(serviceName)) {
-                        providerUrls.addAll(urls);
+                    if (CollectionUtils.isNotEmpty(urls)) {
+                        ret.computeIfAbsent(application, key -> Sets.newHashSet()).add(service);
                     }
                 }));
-        return urlsToProviderList(providerUrls).stream()
-                .filter(provider -> provider.getService().equals(serviceName))
-                .collect(Collectors.toList());
+        return ret;
+    }
+
+    public List<Provider> findByService(String serviceName) {
+        List<Provider> providers = Lists.newArrayList();
+        instanceRegistryCache.findProvidersByService(serviceName).values()
+                .forEach(urls -> providers.addAll(urlsToProviderList(serviceName, urls)));
+        return providers;
     }
 
     public List<Provider> findByAddress(String providerAddress) {
-        ConcurrentMap<String, Map<String, List<InstanceAddressURL>>> appInterfaceMap = instanceRegistryCache.get(Constants.PROVIDERS_CATEGORY);
-        if (appInterfaceMap == null) {
-            return Lists.newArrayList();
-        }
-        List<InstanceAddressURL> providerUrls = Lists.newArrayList();
-        appInterfaceMap.values().forEach(serviceUrlMap ->
-                serviceUrlMap.forEach((service, urls) -> {
-                    if (CollectionUtils.isNotEmpty(urls)) {
-                        urls.forEach(url -> {
-                            if ((url.getInstance().getHost().equals(providerAddress))) {
-                                providerUrls.add(url);
-                            }
-                        });
-                    }
-                }));
-        return urlsToProviderList(providerUrls);
+        List<Provider> providers = Lists.newArrayList();
+        instanceRegistryCache.findProvidersByHost(providerAddress).forEach((service, appUrls) ->
+                appUrls.values().forEach(urls -> providers.addAll(urlsToProviderList(service, urls))));
+        return providers;
     }
 
     public List<Provider> findByApplication(String application) {
@@ -109,9 +92,9 @@ public class InstanceRegistryQueryHelper {
         if (appInterfaceMap == null || appInterfaceMap.get(application) == null) {
             return Lists.newArrayList();
         }
-        List<InstanceAddressURL> providerUrls = Lists.newArrayList();
-        appInterfaceMap.get(application).forEach((service, urls) -> providerUrls.addAll(urls));
-        return urlsToProviderList(providerUrls);
+        List<Provider> providers = Lists.newArrayList();
+        appInterfaceMap.get(application).forEach((service, urls) -> providers.addAll(urlsToProviderList(service, urls)));
+        return providers;
     }
 
     public String findVersionInApplication(String application) {
@@ -129,27 +112,26 @@ public class InstanceRegistryQueryHelper {
         return null;
     }
 
-    private List<Provider> urlsToProviderList(List<InstanceAddressURL> urls) {
+    /**
+     * providers of only the given service
+     */
+    private List<Provider> urlsToProviderList(String service, List<InstanceAddressURL> urls) {
         List<Provider> providers = Lists.newArrayList();
-        urls.stream().distinct().forEach(url -> {
-            ServiceInstance instance = url.getInstance();
-            MetadataInfo metadataInfo = url.getMetadataInfo();
-
-            metadataInfo.getServices().forEach((serviceKey, serviceInfo) -> {
-                Provider p = new Provider();
-                String service = serviceInfo.getServiceKey();
-                p.setService(service);
-                p.setAddress(url.getAddress());
-                p.setApplication(instance.getServiceName());
-                p.setUrl(url.toParameterString());
-                p.setDynamic(url.getParameter("dynamic", true));
-                p.setEnabled(url.getParameter(Constants.ENABLED_KEY, true));
-                p.setWeight(url.getParameter(Constants.WEIGHT_KEY, Constants.DEFAULT_WEIGHT));
-                p.setUsername(url.getParameter("owner"));
-                p.setRegistrySource(RegistrySource.INSTANCE);
-                providers.add(p);
-            });
-        });
+        urls.stream().distinct().forEach(url -> providers.add(instanceRegistryCache.getView(url, service, this::toProvider)));
         return providers;
     }
+
+    private Provider toProvider(String service, InstanceAddressURL url) {
+        Provider p = new Provider();
+        p.setService(service);
+        p.setAddress(url.getAddress());
+        p.setApplication(url.getInstance().getServiceName());
+        p.setUrl(url.toParameterString());
+        p.setDynamic(url.getParameter("dynamic", true));
+        p.setEnabled(url.getParameter(Constants.ENABLED_KEY, true));
+        p.setWeight(url.getParameter(Constants.WEIGHT_KEY, Constants.DEFAULT_WEIGHT));
+        p.setUsername(url.getParameter("owner"));
+        p.setRegistrySource(RegistrySource.INSTANCE);
+        return p;
+    }
 }
@@ -17,27 +17,104 @@
 
 package org.apache.dubbo.admin.service.impl;
 
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.common.util.Pair;
+import org.apache.dubbo.admin.common.util.SyncUtils;
+import org.apache.dubbo.admin.model.domain.Consumer;
+import org.apache.dubbo.admin.model.domain.Provider;
 import org.apache.dubbo.admin.service.RegistryCache;
+import org.apache.dubbo.admin.service.RegistryCacheListener;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
 
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * interface registry url cache
  * key --> category,value --> ConcurrentMap<serviceKey, Map<hash, URL>>
+ * <p>
+ * Mutate it through {@link #putService} and {@link #removeService} so that the secondary indexes
+ * (application, address and interface) stay in step with the url maps.
+ * The url maps of the services are immutable and replaced on change, writers are serialized and readers
+ * take no lock; {@link #snapshot()} gives a consistent view of all services at a version.
+ * The listeners are called in the order of the changes, after the writer has released the lock.
  */
 @Component
 public class InterfaceRegistryCache implements RegistryCache<String, ConcurrentMap<String, Map<String, URL>>> {
 
+    private static final Logger logger = LoggerFactory.getLogger(InterfaceRegistryCache.class);
+
+    private static final char STALE_KEY_SEPARATOR = '\n';
+
     private final ConcurrentMap<String, ConcurrentMap<String, Map<String, URL>>> registryCache = new ConcurrentHashMap<>();
 
+    /**
+     * category --> secondary indexes
+     */
+    private final ConcurrentMap<String, InterfaceRegistryIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * replaced under the lock, a queued event keeps the listeners added before it
+     */
+    private volatile RegistryCacheListener[] listeners = new RegistryCacheListener[0];
+
+    /**
+     * category + serviceKey of the services restored from a snapshot and not yet confirmed by the registry
+     */
+    private final Set<String> staleServices = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile InterfaceRegistrySnapshot snapshot;
+
+    /**
+     * categories changed since the last snapshot, the next snapshot copies only their service maps
+     */
+    private final Set<String> dirtyCategories = new HashSet<>();
+
+    /**
+     * notifications of the listeners queued by the writers in the order of the changes
+     */
+    private final Queue<Runnable> pendingEvents = new ConcurrentLinkedQueue<>();
+
     @Override
     public void put(String key, ConcurrentMap<String, Map<String, URL>> value) {
-        registryCache.put(key, value);
+        value.replaceAll((service, urls) -> Collections.unmodifiableMap(new HashMap<>(urls)));
+        InterfaceRegistryIndex index = new InterfaceRegistryIndex();
+        value.forEach((service, urls) -> {
+            index.addService(service);
+            urls.forEach((id, url) -> index.add(service, id, url));
+        });
+        synchronized (registryCache) {
+            ConcurrentMap<String, Map<String, URL>> previous = registryCache.put(key, value);
+            indexes.put(key, index);
+            changed(key);
+            staleServices.removeIf(stale -> stale.startsWith(key + STALE_KEY_SEPARATOR));
+            RegistryCacheListener[] targets = listeners;
+            if (targets.length > 0) {
+                if (previous != null) {
+                    previous.forEach((service, urls) -> urls.forEach((id, url) -> pendingEvents.add(() -> fireRemoved(targets, key, service, id, url))));
+                }
+                value.forEach((service, urls) -> urls.forEach((id, url) -> pendingEvents.add(() -> fireAdded(targets, key, service, id, url))));
+            }
+        }
+        firePendingEvents();
     }
 
     @Override
@@ -48,4 +125,293 @@ public class InterfaceRegistryCache implements RegistryCache<String, ConcurrentM
     public ConcurrentMap<String, ConcurrentMap<String, Map<String, URL>>> getRegistryCache() {
         return registryCache;
     }
+
+    /**
+     * @return version of the cache, it increases whenever the urls change
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @return immutable snapshot of all categories at the current version. It is built once per version and
+     * shares the url maps of the services with the cache, so reading it takes no lock. A new snapshot copies
+     * only the service maps of the categories changed since the previous one, and shares the others with it.
+     */
+    public InterfaceRegistrySnapshot snapshot() {
+        InterfaceRegistrySnapshot current = snapshot;
+        if (current != null && current.getVersion() == version.get()) {
+            return current;
+        }
+        synchronized (registryCache) {
+            if (snapshot == null || snapshot.getVersion() != version.get()) {
+                Map<String, Map<String, Map<String, URL>>> categories = snapshot == null ? new HashMap<>() : new HashMap<>(snapshot.getRegistryCache());
+                Set<String> changed = snapshot == null ? registryCache.keySet() : dirtyCategories;
+                for (String category : changed) {
+                    ConcurrentMap<String, Map<String, URL>> services = registryCache.get(category);
+                    if (services == null) {
+                        categories.remove(category);
+                    } else {
+                        categories.put(category, Collections.unmodifiableMap(new HashMap<>(services)));
+                    }
+                }
+                dirtyCategories.clear();
+                snapshot = new InterfaceRegistrySnapshot(version.get(), Collections.unmodifiableMap(categories));
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * called by the writers holding the lock
+     */
+    private void changed(String category) {
+        dirtyCategories.add(category);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Add a listener of url changes, the urls already cached are replayed to it as added under the lock,
+     * so that no change is both replayed and notified to it.
+     */
+    public void addListener(RegistryCacheListener listener) {
+        synchronized (registryCache) {
+            RegistryCacheListener[] targets = Arrays.copyOf(listeners, listeners.length + 1);
+            targets[targets.length - 1] = listener;
+            listeners = targets;
+            registryCache.forEach((category, services) -> services.forEach((service, urls) ->
+                    urls.forEach((id, url) -> listener.onUrlAdded(category, service, id, url))));
+        }
+    }
+
+    /**
+     * replace all urls of a service, only the difference against the cached urls is applied.
+     * the url map of the service is immutable, a changed service gets a new one
+     *
+     * @param category category
+     * @param service  serviceKey
+     * @param urls     Map<hash, URL>
+     * @return count of added urls --> count of removed urls
+     */
+    public Pair<Integer, Integer> putService(String category, String service, Map<String, URL> urls) {
+        Pair<Integer, Integer> changes;
+        synchronized (registryCache) {
+            changes = doPutService(category, service, urls);
+        }
+        firePendingEvents();
+        return changes;
+    }
+
+    private Pair<Integer, Integer> doPutService(String category, String service, Map<String, URL> urls) {
+        staleServices.remove(staleKey(category, service));
+        ConcurrentMap<String, Map<String, URL>> services = registryCache.computeIfAbsent(category, key -> new ConcurrentHashMap<>());
+        InterfaceRegistryIndex index = indexes.computeIfAbsent(category, key -> new InterfaceRegistryIndex());
+        Map<String, URL> cached = services.get(service);
+        if (cached == null) {
+            cached = Collections.emptyMap();
+            index.addService(service);
+        }
+        Map<String, URL> next = new HashMap<>(urls.size() * 2);
+        List<Map.Entry<String, URL>> added = new ArrayList<>();
+        for (Map.Entry<String, URL> entry : urls.entrySet()) {
+            URL url = cached.get(entry.getKey());
+            if (url == null) {
+                url = entry.getValue();
+                added.add(entry);
+            }
+            next.put(entry.getKey(), url);
+        }
+        List<Map.Entry<String, URL>> removed = new ArrayList<>();
+        for (Map.Entry<String, URL> entry : cached.entrySet()) {
+            if (!urls.containsKey(entry.getKey())) {
+                removed.add(entry);
+            }
+        }
+        if (added.isEmpty() && removed.isEmpty() && services.containsKey(service)) {
+            return new Pair<>(0, 0);
+        }
+        services.put(service, Collections.unmodifiableMap(next));
+        changed(category);
+        // removals first, a url re-registered at the same address with new parameters ends up as added
+        removed.forEach(entry -> removed(index, category, service, entry.getKey(), entry.getValue()));
+        added.forEach(entry -> added(index, category, service, entry.getKey(), entry.getValue()));
+        return new Pair<>(added.size(), removed.size());
+    }
+
+    /**
+     * @return count of removed urls
+     */
+    public int removeService(String category, String service) {
+        Map<String, URL> previous;
+        synchronized (registryCache) {
+            staleServices.remove(staleKey(category, service));
+            ConcurrentMap<String, Map<String, URL>> services = registryCache.get(category);
+            if (services == null) {
+                return 0;
+            }
+            previous = services.remove(service);
+            if (previous == null) {
+                return 0;
+            }
+            changed(category);
+            InterfaceRegistryIndex index = indexes.get(category);
+            index.removeService(service);
+            previous.forEach((id, url) -> removed(index, category, service, id, url));
+        }
+        firePendingEvents();
+        return previous.size();
+    }
+
+    /**
+     * put the urls of a service restored from a snapshot, unless the registry has already notified the service.
+     * the service stays stale until the registry notifies it, or it is removed by {@link #removeStaleServices()}
+     */
+    public void restoreService(String category, String service, Map<String, URL> urls) {
+        synchronized (registryCache) {
+            ConcurrentMap<String, Map<String, URL>> services = registryCache.get(category);
+            if (services != null && services.containsKey(service)) {
+                return;
+            }
+            doPutService(category, service, urls);
+            staleServices.add(staleKey(category, service));
+        }
+        firePendingEvents();
+    }
+
+    /**
+     * @return whether some services restored from a snapshot are not confirmed by the registry yet
+     */
+    public boolean isStale() {
+        return !staleServices.isEmpty();
+    }
+
+    /**
+     * remove the services restored from a snapshot which the registry has not notified
+     *
+     * @return count of removed services
+     */
+    public int removeStaleServices() {
+        int count = 0;
+        for (String key : new ArrayList<>(staleServices)) {
+            int index = key.indexOf(STALE_KEY_SEPARATOR);
+            removeService(key.substring(0, index), key.substring(index + 1));
+            count++;
+        }
+        return count;
+    }
+
+    private static String staleKey(String category, String service) {
+        return category + STALE_KEY_SEPARATOR + service;
+    }
+
+    private void added(InterfaceRegistryIndex index, String category, String service, String id, URL url) {
+        index.add(service, id, url);
+        RegistryCacheListener[] targets = listeners;
+        if (targets.length > 0) {
+            pendingEvents.add(() -> fireAdded(targets, category, service, id, url));
+        }
+    }
+
+    private void removed(InterfaceRegistryIndex index, String category, String service, String id, URL url) {
+        index.remove(id, url);
+        RegistryCacheListener[] targets = listeners;
+        if (targets.length > 0) {
+            pendingEvents.add(() -> fireRemoved(targets, category, service, id, url));
+        }
+    }
+
+    /**
+     * called by the writers after releasing the lock, the events are drained in the order they were queued
+     */
+    private void firePendingEvents() {
+        synchronized (pendingEvents) {
+            Runnable event;
+            while ((event = pendingEvents.poll()) != null) {
+                event.run();
+            }
+        }
+    }
+
+    private static void fireAdded(RegistryCacheListener[] targets, String category, String service, String id, URL url) {
+        for (RegistryCacheListener listener : targets) {
+            try {
+                listener.onUrlAdded(category, service, id, url);
+            } catch (Exception e) {
+                logger.error("Failed to notify added url " + id + " of " + service, e);
+            }
+        }
+    }
+
+    private static void fireRemoved(RegistryCacheListener[] targets, String category, String service, String id, URL url) {
+        for (RegistryCacheListener listener : targets) {
+            try {
+                listener.onUrlRemoved(category, service, id, url);
+            } catch (Exception e) {
+                logger.error("Failed to notify removed url " + id + " of " + service, e);
+            }
+        }
+    }
+
+    /**
+     * Convert provider urls to providers. Every provider is built once per url and shared by all readers
+     * until the url changes, so it must not be modified.
+     *
+     * @param urls Map<hash, URL> of providers category
+     * @return list of provider object
+     */
+    public List<Provider> toProviders(Map<String, URL> urls) {
+        return toViews(Constants.PROVIDERS_CATEGORY, urls, SyncUtils::url2Provider);
+    }
+
+    /**
+     * Convert consumer urls to consumers. Every consumer is built once per url and shared by all readers
+     * until the url changes, so it must not be modified.
+     *
+     * @param urls Map<hash, URL> of consumers category
+     * @return list of consumer object
+     */
+    public List<Consumer> toConsumers(Map<String, URL> urls) {
+        return toViews(Constants.CONSUMERS_CATEGORY, urls, SyncUtils::url2Consumer);
+    }
+
+    private <T> List<T> toViews(String category, Map<String, URL> urls, Function<Pair<String, URL>, T> builder) {
+        List<T> ret = new ArrayList<>(urls.size());
+        InterfaceRegistryIndex index = indexes.get(category);
+        for (Map.Entry<String, URL> entry : urls.entrySet()) {
+            if (index == null) {
+                ret.add(builder.apply(new Pair<>(entry.getKey(), entry.getValue())));
+            } else {
+                ret.add(index.getView(entry.getKey(), entry.getValue(), builder));
+            }
+        }
+        return ret;
+    }
+
+    public Map<String, URL> findByApplication(String category, String application) {
+        InterfaceRegistryIndex index = indexes.get(category);
+        return index == null ? new HashMap<>() : index.findByApplication(application);
+    }
+
+    /**
+     * @param address ip:port, or just ip
+     */
+    public Map<String, URL> findByAddress(String category, String address) {
+        InterfaceRegistryIndex index = indexes.get(category);
+        return index == null ? new HashMap<>() : index.findByAddress(address);
+    }
+
+    public Set<String> findServicesByInterface(String category, String interfaceName) {
+        InterfaceRegistryIndex index = indexes.get(category);
+        return index == null ? Collections.emptySet() : index.findServicesByInterface(interfaceName);
+    }
+
+    public Set<String> findServicesByApplication(String category, String application) {
+        InterfaceRegistryIndex index = indexes.get(category);
+        return index == null ? new HashSet<>() : index.findServicesByApplication(application);
+    }
+
+    public Set<String> findApplications(String category) {
+        InterfaceRegistryIndex index = indexes.get(category);
+        return index == null ? new HashSet<>() : index.getApplications();
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.common.util.Pair;
+import org.apache.dubbo.admin.common.util.Tool;
+import org.apache.dubbo.common.URL;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * secondary indexes of one category in {@link InterfaceRegistryCache}
+ * application --> ids, ip:port --> ids, ip --> ids, interface --> serviceKeys
+ */
+class InterfaceRegistryIndex {
+
+    /**
+     * id --> url
+     */
+    private final ConcurrentMap<String, URL> urls = new ConcurrentHashMap<>();
+
+    /**
+     * id --> serviceKey
+     */
+    private final ConcurrentMap<String, String> services = new ConcurrentHashMap<>();
+
+    /**
+     * id --> Provider/Consumer view of the url, built lazily and dropped together with the url
+     */
+    private final ConcurrentMap<String, Object> views = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<String>> applications = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<String>> addresses = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<String>> hosts = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<String>> interfaces = new ConcurrentHashMap<>();
+
+    void addService(String service) {
+        link(interfaces, Tool.getInterface(service), service);
+    }
+
+    void removeService(String service) {
+        unlink(interfaces, Tool.getInterface(service), service);
+    }
+
+    void add(String service, String id, URL url) {
+        urls.put(id, url);
+        services.put(id, service);
+        link(applications, url.getParameter(Constants.APPLICATION_KEY), id);
+        String ip = url.getIp();
+        if (ip != null) {
+            link(hosts, ip, id);
+            link(addresses, ip + Constants.COLON + url.getPort(), id);
+        }
+    }
+
+    void remove(String id, URL url) {
+        urls.remove(id);
+        views.remove(id);
+        services.remove(id);
+        unlink(applications, url.getParameter(Constants.APPLICATION_KEY), id);
+        String ip = url.getIp();
+        if (ip != null) {
+            unlink(hosts, ip, id);
+            unlink(addresses, ip + Constants.COLON + url.getPort(), id);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T getView(String id, URL url, Function<Pair<String, URL>, T> builder) {
+        Object view = views.get(id);
+        if (view == null) {
+            view = builder.apply(new Pair<>(id, url));
+            // only cache views of live urls, and drop it again if the url has gone away meanwhile
+            if (urls.get(id) == url) {
+                Object previous = views.putIfAbsent(id, view);
+                if (previous != null) {
+                    view = previous;
+                } else if (urls.get(id) != url) {
+                    views.remove(id, view);
+                }
+            }
+        }
+        return (T) view;
+    }
+
+    Map<String, URL> findByApplication(String application) {
+        return resolve(application == null ? null : applications.get(application));
+    }
+
+    /**
+     * @param address ip:port, or just ip
+     */
+    Map<String, URL> findByAddress(String address) {
+        if (address == null) {
+            return new HashMap<>();
+        }
+        return resolve(address.contains(Constants.COLON) ? addresses.get(address) : hosts.get(address));
+    }
+
+    Set<String> findServicesByInterface(String interfaceName) {
+        Set<String> serviceKeys = interfaceName == null ? null : interfaces.get(interfaceName);
+        return serviceKeys == null ? Collections.emptySet() : new HashSet<>(serviceKeys);
+    }
+
+    Set<String> findServicesByApplication(String application) {
+        Set<String> ret = new HashSet<>();
+        Set<String> ids = application == null ? null : applications.get(application);
+        if (ids == null) {
+            return ret;
+        }
+        for (String id : ids) {
+            String service = services.get(id);
+            if (service != null) {
+                ret.add(service);
+            }
+        }
+        return ret;
+    }
+
+    Set<String> getApplications() {
+        return new HashSet<>(applications.keySet());
+    }
+
+    private Map<String, URL> resolve(Collection<String> ids) {
+        Map<String, URL> ret = new HashMap<>();
+        if (ids == null) {
+            return ret;
+        }
+        for (String id : ids) {
+            URL url = urls.get(id);
+            if (url != null) {
+                ret.put(id, url);
+            }
+        }
+        return ret;
+    }
+
+    private static void link(ConcurrentMap<String, Set<String>> index, String key, String value) {
+        if (key == null) {
+            return;
+        }
+        index.compute(key, (k, values) -> {
+            if (values == null) {
+                values = ConcurrentHashMap.newKeySet();
+            }
+            values.add(value);
+            return values;
+        });
+    }
+
+    private static void unlink(ConcurrentMap<String, Set<String>> index, String key, String value) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.common.URL;
+
+import java.util.Map;
+
+/**
+ * immutable view of {@link InterfaceRegistryCache} at a version
+ * category --> serviceKey --> hash --> URL
+ */
+public final class InterfaceRegistrySnapshot {
+
+    private final long version;
+
+    private final Map<String, Map<String, Map<String, URL>>> registryCache;
+
+    InterfaceRegistrySnapshot(long version, Map<String, Map<String, Map<String, URL>>> registryCache) {
+        this.version = version;
+        this.registryCache = registryCache;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Map<String, Map<String, Map<String, URL>>> getRegistryCache() {
+        return registryCache;
+    }
+
+    public Map<String, Map<String, URL>> get(String category) {
+        return registryCache.get(category);
+    }
+}
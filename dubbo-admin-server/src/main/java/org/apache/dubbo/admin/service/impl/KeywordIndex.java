@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * case insensitive glob search over a set of keys, '*' matches any characters and '?' matches one character,
+ * a pattern matches a key which starts with it.
+ * candidates are narrowed by the trigrams of the literal segments of the pattern, or by its literal prefix
+ * on the sorted keys, then checked against the pattern.
+ */
+class KeywordIndex {
+
+    private static final int GRAM = 3;
+
+    private static final char WILDCARD_ANY = '*';
+
+    private static final char WILDCARD_ONE = '?';
+
+    private static final String WILDCARDS = "[*?]";
+
+    /**
+     * lower case key --> key --> reference count
+     */
+    private final NavigableMap<String, Map<String, Integer>> keys = new TreeMap<>();
+
+    /**
+     * trigram --> lower case keys
+     */
+    private final Map<String, Set<String>> grams = new HashMap<>();
+
+    synchronized void add(String key) {
+        if (key == null) {
+            return;
+        }
+        String lower = key.toLowerCase(Locale.ROOT);
+        Map<String, Integer> originals = keys.get(lower);
+        if (originals == null) {
+            originals = new HashMap<>();
+            keys.put(lower, originals);
+            for (String gram : grams(lower)) {
+                grams.computeIfAbsent(gram, k -> new HashSet<>()).add(lower);
+            }
+        }
+        originals.merge(key, 1, Integer::sum);
+    }
+
+    synchronized void remove(String key) {
+        if (key == null) {
+            return;
+        }
+        String lower = key.toLowerCase(Locale.ROOT);
+        Map<String, Integer> originals = keys.get(lower);
+        if (originals == null) {
+            return;
+        }
+        Integer count = originals.get(key);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            originals.put(key, count - 1);
+            return;
+        }
+        originals.remove(key);
+        if (originals.isEmpty()) {
+            keys.remove(lower);
+            for (String gram : grams(lower)) {
+                Set<String> posting = grams.get(gram);
+                if (posting != null && posting.remove(lower) && posting.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    synchronized Set<String> search(String glob) {
+        String lower = glob.toLowerCase(Locale.ROOT);
+        String prefix = literalPrefix(lower);
+        List<Set<String>> postings = new ArrayList<>();
+        for (String segment : lower.split(WILDCARDS)) {
+            for (String gram : grams(segment)) {
+                Set<String> posting = grams.get(gram);
+                if (posting == null) {
+                    return new HashSet<>();
+                }
+                postings.add(posting);
+            }
+        }
+        Collection<String> candidates;
+        if (!postings.isEmpty()) {
+            postings.sort(Comparator.comparingInt(Set::size));
+            candidates = postings.get(0);
+        } else if (!prefix.isEmpty()) {
+            candidates = keys.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet();
+        } else {
+            candidates = keys.keySet();
+        }
+        Predicate<String> matcher = matcher(lower);
+        Set<String> ret = new HashSet<>();
+        for (String candidate : candidates) {
+            if (candidate.startsWith(prefix) && contains(postings, candidate) && matcher.test(candidate)) {
+                ret.addAll(keys.get(candidate).keySet());
+            }
+        }
+        return ret;
+    }
+
+    private static boolean contains(List<Set<String>> postings, String key) {
+        for (Set<String> posting : postings) {
+            if (!posting.contains(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * case insensitive matcher of a glob pattern, for keys which are not indexed
+     */
+    static Predicate<String> matcher(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == WILDCARD_ANY || c == WILDCARD_ONE) {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == WILDCARD_ANY ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        Pattern pattern = Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+        return key -> pattern.matcher(key).lookingAt();
+    }
+
+    private static String literalPrefix(String glob) {
+        int i = 0;
+        while (i < glob.length() && glob.charAt(i) != WILDCARD_ANY && glob.charAt(i) != WILDCARD_ONE) {
+            i++;
+        }
+        return glob.substring(0, i);
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> ret = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            ret.add(value.substring(i, i + GRAM));
+        }
+        return ret;
+    }
+}
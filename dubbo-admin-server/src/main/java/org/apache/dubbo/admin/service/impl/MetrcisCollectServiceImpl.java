@@ -35,6 +35,14 @@ public class MetrcisCollectServiceImpl {
         referenceConfig.setUrl(url);
     }
 
+    public void setTimeout(int timeout) {
+        referenceConfig.setTimeout(timeout);
+    }
+
+    public void destroy() {
+        referenceConfig.destroy();
+    }
+
     public Object invoke(String group) {
         MetricsService metricsService = referenceConfig.get();
         return metricsService.getMetricsByGroup(group);
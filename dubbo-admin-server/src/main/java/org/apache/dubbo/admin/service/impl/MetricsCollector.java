@@ -0,0 +1,369 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.common.util.Tool;
+import org.apache.dubbo.admin.model.domain.Consumer;
+import org.apache.dubbo.admin.model.domain.Provider;
+import org.apache.dubbo.admin.model.dto.MetricDTO;
+import org.apache.dubbo.admin.service.ConsumerService;
+import org.apache.dubbo.admin.service.ProviderService;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.metadata.definition.model.FullServiceDefinition;
+import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * collect metrics from the MetricsService of applications,
+ * references and the metrics port/protocol of hosts are cached, and hosts are collected in parallel
+ */
+@Component
+public class MetricsCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsCollector.class);
+
+    private static final String DEFAULT_METRICS_PORT = "20880";
+
+    private static final String DEFAULT_METRICS_PROTOCOL = "dubbo";
+
+    private static final long MAX_CLEAN_UP_PERIOD_MILLIS = 60 * 1000;
+
+    private static final Type METRICS_TYPE = new TypeToken<List<MetricDTO>>() {
+    }.getType();
+
+    private static final Type PARAMETERS_TYPE = new TypeToken<Map<String, String>>() {
+    }.getType();
+
+    private final Gson gson = new Gson();
+
+    private final ProviderService providerService;
+
+    private final ConsumerService consumerService;
+
+    @Value("${admin.metrics.collect.threads:16}")
+    private int threads;
+
+    @Value("${admin.metrics.collect.timeout-millis:3000}")
+    private int timeoutMillis;
+
+    @Value("${admin.metrics.collect.reference.idle-timeout-millis:600000}")
+    private long referenceIdleTimeoutMillis;
+
+    @Value("${admin.metrics.collect.config.expire-millis:300000}")
+    private long configExpireMillis;
+
+    private ExecutorService executor;
+
+    /**
+     * url --> MetricsService reference, destroyed once it is evicted and its calls in flight are done
+     */
+    private Cache<String, MetricsReference> references;
+
+    /**
+     * cleans up the idle references, expiration alone only happens on an access of the cache
+     */
+    private ScheduledExecutorService cleaner;
+
+    /**
+     * ip --> metrics port --> metrics protocol
+     */
+    private Cache<String, Map<String, String>> metricsConfigs;
+
+    public MetricsCollector(ProviderService providerService, ConsumerService consumerService) {
+        this.providerService = providerService;
+        this.consumerService = consumerService;
+    }
+
+    @PostConstruct
+    public void init() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-metrics-collect-%d").daemon(true).build());
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+        RemovalListener<String, MetricsReference> onRemoval = notification -> notification.getValue().evict();
+        references = CacheBuilder.newBuilder()
+                .expireAfterAccess(referenceIdleTimeoutMillis, TimeUnit.MILLISECONDS)
+                .removalListener(onRemoval)
+                .build();
+        long period = Math.max(1, Math.min(referenceIdleTimeoutMillis, MAX_CLEAN_UP_PERIOD_MILLIS));
+        cleaner = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-metrics-reference-cleaner").daemon(true).build());
+        cleaner.scheduleWithFixedDelay(references::cleanUp, period, period, TimeUnit.MILLISECONDS);
+        metricsConfigs = CacheBuilder.newBuilder()
+                .expireAfterWrite(configExpireMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        cleaner.shutdownNow();
+        executor.shutdownNow();
+        references.invalidateAll();
+    }
+
+    /**
+     * invoke the MetricsService at the given url
+     */
+    public Object invoke(String url, String group) {
+        MetricsReference reference;
+        do {
+            // a reference evicted meanwhile is not used, the next get creates a new one
+            reference = getReference(url);
+        } while (!reference.acquire());
+        try {
+            return reference.invoker.apply(group);
+        } finally {
+            reference.release();
+        }
+    }
+
+    /**
+     * collect metrics of all metrics ports of the given hosts in parallel,
+     * the hosts and ports which fail or do not answer in time are skipped
+     *
+     * @return ip --> metrics
+     */
+    public Map<String, List<MetricDTO>> collect(Collection<String> ips, String group) {
+        List<String> targets = new ArrayList<>(new LinkedHashSet<>(ips));
+        // the metadata of the hosts whose metrics config is not cached are read at once
+        Map<String, MetadataIdentifier> identifiers = new HashMap<>();
+        for (String ip : targets) {
+            if (metricsConfigs.getIfPresent(ip) != null) {
+                continue;
+            }
+            try {
+                MetadataIdentifier identifier = findIdentifier(ip);
+                if (identifier != null) {
+                    identifiers.put(ip, identifier);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to find the services of " + ip, e);
+            }
+        }
+        Map<MetadataIdentifier, String> metaData = getMetaData(identifiers.values());
+        List<Callable<List<MetricDTO>>> tasks = new ArrayList<>();
+        for (String ip : targets) {
+            tasks.add(() -> collect(ip, group, getMetricsConfig(ip, identifiers.get(ip), metaData)));
+        }
+        Map<String, List<MetricDTO>> ret = new LinkedHashMap<>();
+        targets.forEach(ip -> ret.put(ip, new ArrayList<>()));
+        List<Future<List<MetricDTO>>> futures;
+        try {
+            futures = executor.invokeAll(tasks, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ret;
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            Future<List<MetricDTO>> future = futures.get(i);
+            try {
+                ret.get(targets.get(i)).addAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ret;
+            } catch (ExecutionException e) {
+                logger.warn("Failed to collect metrics of " + targets.get(i), e.getCause());
+            } catch (CancellationException e) {
+                logger.warn("Timeout to collect metrics of " + targets.get(i));
+            }
+        }
+        return ret;
+    }
+
+    private List<MetricDTO> collect(String ip, String group, Map<String, String> config) {
+        List<MetricDTO> ret = new ArrayList<>();
+        config.forEach((port, protocol) -> {
+            String url = protocol + "://" + ip + ":" + port + "?scope=remote&cache=true";
+            try {
+                List<MetricDTO> metrics = gson.fromJson(invoke(url, group).toString(), METRICS_TYPE);
+                if (metrics != null) {
+                    ret.addAll(metrics);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to collect metrics of " + url, e);
+            }
+        });
+        return ret;
+    }
+
+    private MetricsReference getReference(String url) {
+        try {
+            return references.get(url, () -> createReference(url));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    MetricsReference createReference(String url) {
+        MetrcisCollectServiceImpl service = new MetrcisCollectServiceImpl();
+        service.setUrl(url);
+        service.setTimeout(timeoutMillis);
+        return new MetricsReference(service::invoke, service::destroy);
+    }
+
+    /**
+     * @return the metadata identifier of a service of the host, null if the host is not registered
+     */
+    private MetadataIdentifier findIdentifier(String ip) {
+        List<Provider> providers = providerService.findByAddress(ip);
+        if (providers.size() > 0) {
+            String service = providers.get(0).getService();
+            return new MetadataIdentifier(Tool.getInterface(service), Tool.getVersion(service), Tool.getGroup(service),
+                    Constants.PROVIDER_SIDE, providers.get(0).getApplication());
+        }
+        List<Consumer> consumers = consumerService.findByAddress(ip);
+        if (consumers.size() > 0) {
+            String service = consumers.get(0).getService();
+            return new MetadataIdentifier(Tool.getInterface(service), Tool.getVersion(service), Tool.getGroup(service),
+                    Constants.CONSUMER_SIDE, consumers.get(0).getApplication());
+        }
+        return null;
+    }
+
+    private Map<MetadataIdentifier, String> getMetaData(Collection<MetadataIdentifier> identifiers) {
+        if (identifiers.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return providerService.getMetaData(identifiers);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to read the metadata of " + identifiers.size() + " hosts", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * @return metrics port --> metrics protocol of the host, discovered from the metadata of its services.
+     * the default port is used while the metadata can not be read, and the config is not cached then
+     */
+    Map<String, String> getMetricsConfig(String ip, MetadataIdentifier identifier, Map<MetadataIdentifier, String> metaData) {
+        Map<String, String> config = metricsConfigs.getIfPresent(ip);
+        if (config != null) {
+            return config;
+        }
+        config = new HashMap<>();
+        boolean read = identifier == null || metaData.containsKey(identifier);
+        if (identifier != null && metaData.get(identifier) != null) {
+            try {
+                putMetricsConfig(config, parseParameters(identifier, metaData.get(identifier)));
+            } catch (JsonParseException e) {
+                logger.warn("Failed to parse the metadata of " + identifier, e);
+            }
+        }
+        // default value
+        if (config.isEmpty()) {
+            config.put(DEFAULT_METRICS_PORT, DEFAULT_METRICS_PROTOCOL);
+        }
+        if (read) {
+            metricsConfigs.put(ip, config);
+        }
+        return config;
+    }
+
+    private Map<String, String> parseParameters(MetadataIdentifier identifier, String metaData) {
+        if (Constants.PROVIDER_SIDE.equals(identifier.getSide())) {
+            FullServiceDefinition definition = gson.fromJson(metaData, FullServiceDefinition.class);
+            return definition == null ? null : definition.getParameters();
+        }
+        return gson.fromJson(metaData, PARAMETERS_TYPE);
+    }
+
+    private static void putMetricsConfig(Map<String, String> configMap, Map<String, String> parameters) {
+        if (parameters == null) {
+            return;
+        }
+        String port = parameters.get(Constants.METRICS_PORT);
+        if (port != null) {
+            configMap.put(port, parameters.getOrDefault(Constants.METRICS_PROTOCOL, DEFAULT_METRICS_PROTOCOL));
+        }
+    }
+
+    /**
+     * a MetricsService reference with the number of its calls in flight, so that an eviction does not destroy it under a call
+     */
+    static class MetricsReference {
+
+        private final Function<String, Object> invoker;
+
+        private final Runnable destroyer;
+
+        private int inFlight;
+
+        private boolean evicted;
+
+        MetricsReference(Function<String, Object> invoker, Runnable destroyer) {
+            this.invoker = invoker;
+            this.destroyer = destroyer;
+        }
+
+        synchronized boolean acquire() {
+            if (evicted) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        }
+
+        synchronized void release() {
+            if (--inFlight == 0 && evicted) {
+                destroyer.run();
+            }
+        }
+
+        synchronized void evict() {
+            evicted = true;
+            if (inFlight == 0) {
+                destroyer.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.model.dto.MetricSeriesDTO;
+
+import java.util.Arrays;
+
+/**
+ * fixed size ring buffer of samples, the oldest sample is overwritten when it is full
+ */
+class MetricsRingBuffer {
+
+    private final long[] timestamps;
+
+    private final double[] values;
+
+    /**
+     * index of the next sample
+     */
+    private int head;
+
+    private int size;
+
+    MetricsRingBuffer(int capacity) {
+        timestamps = new long[capacity];
+        values = new double[capacity];
+    }
+
+    /**
+     * samples are expected in time order, a sample older than the last one is dropped
+     */
+    synchronized void add(long timestamp, double value) {
+        if (size > 0 && timestamp < timestamps[(head - 1 + timestamps.length) % timestamps.length]) {
+            return;
+        }
+        timestamps[head] = timestamp;
+        values[head] = value;
+        head = (head + 1) % timestamps.length;
+        if (size < timestamps.length) {
+            size++;
+        }
+    }
+
+    /**
+     * samples in [from, to), averaged into at most the given number of buckets of equal width
+     * and filled into the series, the empty buckets are skipped
+     */
+    synchronized void query(long from, long to, int points, MetricSeriesDTO series) {
+        long[] bucketTimestamps = new long[size];
+        double[] averages = new double[size];
+        int n = 0;
+        if (points > 0 && to > from) {
+            // to - from is exact as unsigned even when it overflows a long, so the width and buckets are unsigned too
+            long span = to - from;
+            long width = Long.divideUnsigned(span, points) + (Long.remainderUnsigned(span, points) == 0 ? 0 : 1);
+            // the samples are in time order, so the samples of a bucket are next to each other
+            long bucket = -1;
+            double sum = 0;
+            int count = 0;
+            int start = (head - size + timestamps.length) % timestamps.length;
+            for (int i = 0; i < size; i++) {
+                int index = (start + i) % timestamps.length;
+                long timestamp = timestamps[index];
+                if (timestamp < from || timestamp >= to) {
+                    continue;
+                }
+                long current = Long.divideUnsigned(timestamp - from, width);
+                if (current != bucket && count > 0) {
+                    bucketTimestamps[n] = from + bucket * width;
+                    averages[n++] = sum / count;
+                    sum = 0;
+                    count = 0;
+                }
+                bucket = current;
+                sum += values[index];
+                count++;
+            }
+            if (count > 0) {
+                bucketTimestamps[n] = from + bucket * width;
+                averages[n++] = sum / count;
+            }
+        }
+        series.setTimestamps(Arrays.copyOf(bucketTimestamps, n));
+        series.setValues(Arrays.copyOf(averages, n));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.model.dto.MetricDTO;
+import org.apache.dubbo.admin.model.dto.MetricSeriesDTO;
+import org.apache.dubbo.admin.service.ProviderService;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * scrape metrics of all provider hosts in the background, and keep the samples in memory
+ * host --> method --> metric --> ring buffer of samples.
+ * hosts are spread over the slices of the scrape interval, so that they are not scraped all at once
+ */
+@Component
+public class MetricsScraper {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsScraper.class);
+
+    private static final String METHOD_TAG = "method";
+
+    private static final char SEPARATOR = '\n';
+
+    private final MetricsCollector metricsCollector;
+
+    private final ProviderService providerService;
+
+    private final InstanceRegistryCache instanceRegistryCache;
+
+    @Value("${admin.metrics.scrape.enabled:false}")
+    private boolean enabled;
+
+    @Value("${admin.metrics.scrape.group:dubbo}")
+    private String group;
+
+    @Value("${admin.metrics.scrape.interval-millis:15000}")
+    private long intervalMillis;
+
+    @Value("${admin.metrics.scrape.slices:5}")
+    private int slices;
+
+    @Value("${admin.metrics.scrape.capacity:240}")
+    private int capacity;
+
+    /**
+     * host --> method + metric --> samples
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, MetricsRingBuffer>> samples = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private long ticks;
+
+    public MetricsScraper(MetricsCollector metricsCollector, ProviderService providerService, InstanceRegistryCache instanceRegistryCache) {
+        this.metricsCollector = metricsCollector;
+        this.providerService = providerService;
+        this.instanceRegistryCache = instanceRegistryCache;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (capacity <= 0 || slices <= 0) {
+            throw new IllegalArgumentException("admin.metrics.scrape.capacity and admin.metrics.scrape.slices must be positive, capacity: "
+                    + capacity + ", slices: " + slices);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-metrics-scrape-%d").daemon(true).build());
+        long period = Math.max(1, intervalMillis / slices);
+        scheduler.scheduleWithFixedDelay(this::scrape, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void scrape() {
+        try {
+            int slice = (int) (ticks++ % slices);
+            Set<String> hosts = findHosts();
+            samples.keySet().retainAll(hosts);
+            List<String> targets = new ArrayList<>();
+            for (String host : hosts) {
+                if (Math.floorMod(host.hashCode(), slices) == slice) {
+                    targets.add(host);
+                }
+            }
+            if (!targets.isEmpty()) {
+                metricsCollector.collect(targets, group).forEach(this::record);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to scrape metrics", e);
+        }
+    }
+
+    void record(String host, List<MetricDTO> metrics) {
+        long now = System.currentTimeMillis();
+        ConcurrentMap<String, MetricsRingBuffer> series = samples.computeIfAbsent(host, key -> new ConcurrentHashMap<>());
+        for (MetricDTO metric : metrics) {
+            if (!(metric.getValue() instanceof Number) || metric.getMetric() == null) {
+                continue;
+            }
+            String key = getMethod(metric) + SEPARATOR + metric.getMetric();
+            long timestamp = metric.getTimestamp() == null ? now : metric.getTimestamp();
+            series.computeIfAbsent(key, k -> new MetricsRingBuffer(capacity))
+                    .add(timestamp, ((Number) metric.getValue()).doubleValue());
+        }
+    }
+
+    /**
+     * samples of the host in [from, to), downsampled to at most the given number of points per series,
+     * which is capped by the capacity of the series
+     */
+    public List<MetricSeriesDTO> query(String host, long from, long to, int points) {
+        List<MetricSeriesDTO> ret = new ArrayList<>();
+        Map<String, MetricsRingBuffer> series = samples.get(host);
+        if (series == null || points <= 0 || to <= from) {
+            return ret;
+        }
+        series.forEach((key, buffer) -> {
+            int index = key.indexOf(SEPARATOR);
+            MetricSeriesDTO dto = new MetricSeriesDTO();
+            dto.setHost(host);
+            dto.setMethod(key.substring(0, index));
+            dto.setMetric(key.substring(index + 1));
+            buffer.query(from, to, Math.min(points, capacity), dto);
+            if (dto.getTimestamps().length > 0) {
+                ret.add(dto);
+            }
+        });
+        return ret;
+    }
+
+    /**
+     * hosts of the providers of both the interface registry and the instance registry
+     */
+    private Set<String> findHosts() {
+        Set<String> hosts = instanceRegistryCache.findHosts();
+        for (String address : providerService.findAddresses()) {
+            int index = address.lastIndexOf(Constants.COLON);
+            hosts.add(index < 0 ? address : address.substring(0, index));
+        }
+        return hosts;
+    }
+
+    private static String getMethod(MetricDTO metric) {
+        String method = metric.getTags().get(METHOD_TAG);
+        if (method == null) {
+            method = metric.getService();
+        }
+        return method == null ? "" : method;
+    }
+}
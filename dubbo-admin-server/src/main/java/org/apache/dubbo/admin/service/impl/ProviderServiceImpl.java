@@ -19,7 +19,6 @@ package org.apache.dubbo.admin.service.impl;
 import org.apache.dubbo.admin.common.exception.ParamValidationException;
 import org.apache.dubbo.admin.common.util.Constants;
 import org.apache.dubbo.admin.common.util.SyncUtils;
-import org.apache.dubbo.admin.common.util.Tool;
 import org.apache.dubbo.admin.model.domain.Provider;
 import org.apache.dubbo.admin.model.dto.ServiceDTO;
 import org.apache.dubbo.admin.service.ProviderService;
@@ -27,20 +26,19 @@ import org.apache.dubbo.common.URL;
 import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.ConcurrentMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Component
 public class ProviderServiceImpl extends AbstractService implements ProviderService {
@@ -48,6 +46,9 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
     @Autowired
     private InstanceRegistryQueryHelper instanceRegistryQueryHelper;
 
+    @Autowired
+    private ServiceSearchIndex serviceSearchIndex;
+
     @Override
     public void create(Provider provider) {
         URL url = provider.toUrl();
@@ -60,10 +61,15 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
         return metaDataCollector.getProviderMetaData(providerIdentifier);
     }
 
+    @Override
+    public Map<MetadataIdentifier, String> getMetaData(Collection<MetadataIdentifier> identifiers) {
+        return metaDataCollector.getMetaData(identifiers);
+    }
+
     @Override
     public Set<String> findServices() {
         Set<String> ret = new HashSet<>();
-        ConcurrentMap<String, Map<String, URL>> providerUrls = getInterfaceRegistryCache().get(Constants.PROVIDERS_CATEGORY);
+        Map<String, Map<String, URL>> providerUrls = getInterfaceRegistryCache().get(Constants.PROVIDERS_CATEGORY);
         if (providerUrls != null) {
             ret.addAll(providerUrls.keySet());
         }
@@ -80,7 +86,7 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
     public List<String> findAddresses() {
         List<String> ret = new ArrayList<String>();
 
-        ConcurrentMap<String, Map<String, URL>> providerUrls = getInterfaceRegistryCache().get(Constants.PROVIDERS_CATEGORY);
+        Map<String, Map<String, URL>> providerUrls = getInterfaceRegistryCache().get(Constants.PROVIDERS_CATEGORY);
         if (null == providerUrls) {
             return ret;
         }
@@ -101,7 +107,7 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
     @Override
     public List<Provider> findByService(String serviceName) {
         List<Provider> instanceProviders = instanceRegistryQueryHelper.findByService(serviceName);
-        List<Provider> interfaceProviders = SyncUtils.url2ProviderList(findProviderUrlByService(serviceName));
+        List<Provider> interfaceProviders = interfaceRegistryCache.toProviders(findProviderUrlByService(serviceName));
         instanceProviders.addAll(interfaceProviders);
         return instanceProviders;
     }
@@ -116,7 +122,7 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
 
     @Override
     public List<Provider> findAll() {
-        return SyncUtils.url2ProviderList(findAllProviderUrl());
+        return interfaceRegistryCache.toProviders(findAllProviderUrl());
     }
 
     private Map<String, URL> findAllProviderUrl() {
@@ -128,45 +134,26 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
     @Override
     public List<Provider> findByAddress(String providerAddress) {
         List<Provider> instanceProviders = instanceRegistryQueryHelper.findByAddress(providerAddress);
-        List<Provider> interfaceProviders = SyncUtils.url2ProviderList(findProviderUrlByAddress(providerAddress));
+        List<Provider> interfaceProviders = interfaceRegistryCache.toProviders(findProviderUrlByAddress(providerAddress));
         instanceProviders.addAll(interfaceProviders);
         return instanceProviders;
     }
 
     public Map<String, URL> findProviderUrlByAddress(String address) {
-        Map<String, String> filter = new HashMap<String, String>();
-        filter.put(Constants.CATEGORY_KEY, Constants.PROVIDERS_CATEGORY);
-        filter.put(SyncUtils.ADDRESS_FILTER_KEY, address);
-
-        return SyncUtils.filterFromCategory(getInterfaceRegistryCache(), filter);
+        return interfaceRegistryCache.findByAddress(Constants.PROVIDERS_CATEGORY, address);
     }
 
     @Override
     public Set<String> findApplications() {
         Set<String> ret = instanceRegistryQueryHelper.findApplications();
-        ConcurrentMap<String, Map<String, URL>> providerUrls = getInterfaceRegistryCache().get(Constants.PROVIDERS_CATEGORY);
-        if (providerUrls == null) {
-            return ret;
-        }
-
-        for (Map.Entry<String, Map<String, URL>> e1 : providerUrls.entrySet()) {
-            Map<String, URL> value = e1.getValue();
-            for (Map.Entry<String, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                String app = u.getParameter(Constants.APPLICATION);
-                if (app != null) {
-                    ret.add(app);
-                }
-            }
-        }
-
+        ret.addAll(interfaceRegistryCache.findApplications(Constants.PROVIDERS_CATEGORY));
         return ret;
     }
 
     @Override
     public List<Provider> findByApplication(String application) {
         List<Provider> instanceProviders = instanceRegistryQueryHelper.findByApplication(application);
-        List<Provider> interfaceProviders = SyncUtils.url2ProviderList(findProviderUrlByApplication(application));
+        List<Provider> interfaceProviders = interfaceRegistryCache.toProviders(findProviderUrlByApplication(application));
         instanceProviders.addAll(interfaceProviders);
         return instanceProviders;
     }
@@ -207,33 +194,15 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
 
 
     private Map<String, URL> findProviderUrlByApplication(String application) {
-        Map<String, String> filter = new HashMap<>();
-        filter.put(Constants.CATEGORY_KEY, Constants.PROVIDERS_CATEGORY);
-        filter.put(Constants.APPLICATION, application);
-        return SyncUtils.filterFromCategory(getInterfaceRegistryCache(), filter);
+        return interfaceRegistryCache.findByApplication(Constants.PROVIDERS_CATEGORY, application);
     }
 
     @Override
     public List<String> findServicesByApplication(String application) {
-        List<String> ret = new ArrayList<String>();
-
-        ConcurrentMap<String, Map<String, URL>> providerUrls = getInterfaceRegistryCache().get(Constants.PROVIDERS_CATEGORY);
-        if (providerUrls == null || application == null || application.length() == 0) {
-            return ret;
-        }
-
-        for (Map.Entry<String, Map<String, URL>> e1 : providerUrls.entrySet()) {
-            Map<String, URL> value = e1.getValue();
-            for (Map.Entry<String, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                if (application.equals(u.getParameter(Constants.APPLICATION))) {
-                    ret.add(e1.getKey());
-                    break;
-                }
-            }
+        if (application == null || application.length() == 0) {
+            return new ArrayList<>();
         }
-
-        return ret;
+        return new ArrayList<>(interfaceRegistryCache.findServicesByApplication(Constants.PROVIDERS_CATEGORY, application));
     }
 
     @Override
@@ -249,41 +218,27 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
                 providers = findByApplication(filter);
             }
         } else {
-            // filter with fuzzy search
-            Set<String> candidates = Collections.emptySet();
-            if (Constants.SERVICE.equals(pattern)) {
-                candidates = findServices();
-            } else if (Constants.APPLICATION.equals(pattern)) {
-                candidates = findApplications();
-            } else if (Constants.IP.equals(pattern)) {
-                candidates = findAddresses().stream().collect(Collectors.toSet());
-            }
-            // replace dot symbol and asterisk symbol to java-based regex pattern
-            filter = filter.toLowerCase().replace(Constants.PUNCTUATION_POINT, Constants.PUNCTUATION_SEPARATOR_POINT);
-            // filter start with [* 、? 、+] will triggering PatternSyntaxException
-            if (filter.startsWith(Constants.ANY_VALUE)
-                    || filter.startsWith(Constants.INTERROGATION_POINT) || filter.startsWith(Constants.PLUS_SIGNS)) {
-                filter = Constants.PUNCTUATION_POINT + filter;
-            }
-            // search with no case insensitive
-            Pattern regex = Pattern.compile(filter, Pattern.CASE_INSENSITIVE);
-            for (String candidate : candidates) {
-                Matcher matcher = regex.matcher(candidate);
-                if (matcher.matches() || matcher.lookingAt()) {
-                    if (Constants.SERVICE.equals(pattern)) {
-                        providers.addAll(findByService(candidate));
-                    } else if (Constants.IP.equals(pattern)) {
-                        providers.addAll(findByAddress(candidate));
-                    } else {
-                        providers.addAll(findByApplication(candidate));
-                    }
-                }
-            }
+            // filter with fuzzy search, keys of both registries are resolved through the search index
+            return new TreeSet<>(serviceSearchIndex.searchServiceDTOs(pattern, filter));
         }
 
         return convertProviders2DTO(providers);
     }
 
+    @Override
+    public Page<ServiceDTO> getServiceDTOS(String pattern, String filter, String env, Pageable pageable) {
+        List<ServiceDTO> serviceDTOS;
+        if (filter.contains(Constants.ANY_VALUE) || filter.contains(Constants.INTERROGATION_POINT)) {
+            // sorted by the search index, only the services of the page are copied
+            serviceDTOS = serviceSearchIndex.searchServiceDTOs(pattern, filter);
+        } else {
+            serviceDTOS = new ArrayList<>(getServiceDTOS(pattern, filter, env));
+        }
+        int offset = (int) Math.min(pageable.getOffset(), serviceDTOS.size());
+        int end = (int) Math.min((long) offset + pageable.getPageSize(), serviceDTOS.size());
+        return new PageImpl<>(new ArrayList<>(serviceDTOS.subList(offset, end)), pageable, serviceDTOS.size());
+    }
+
     /**
      * Convert provider list to ServiceDTO list
      *
@@ -293,18 +248,7 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
     public Set<ServiceDTO> convertProviders2DTO(List<Provider> providers) {
         Set<ServiceDTO> result = new TreeSet<>();
         for (Provider provider : providers) {
-            String app = provider.getApplication();
-            String service = provider.getService();
-            String group = Tool.getGroup(service);
-            String version = Tool.getVersion(service);
-            String interfaze = Tool.getInterface(service);
-            ServiceDTO s = new ServiceDTO();
-            s.setAppName(app);
-            s.setService(interfaze);
-            s.setGroup(group);
-            s.setVersion(version);
-            s.setRegistrySource(provider.getRegistrySource());
-            result.add(s);
+            result.add(ServiceSearchIndex.toServiceDTO(provider.getApplication(), provider.getService(), provider.getRegistrySource()));
         }
         return result;
     }
@@ -0,0 +1,454 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.metadata.MetadataInfo;
+import org.apache.dubbo.registry.client.DefaultServiceInstance;
+import org.apache.dubbo.registry.client.InstanceAddressURL;
+import org.apache.dubbo.registry.client.ServiceInstance;
+import org.apache.dubbo.registry.client.metadata.ServiceInstanceMetadataUtils;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * periodic binary snapshot of {@link InterfaceRegistryCache} and {@link InstanceRegistryCache}.
+ * the snapshot is restored on boot so that pages are served before the registry subscription converges,
+ * the restored entries are stale until the registry notifies them, those never notified are removed after
+ * the reconcile delay.
+ * <p>
+ * the file is a magic and version header, a table of the distinct strings, each one length-prefixed utf-8,
+ * then the cached entries with all strings written as int references into the table. The whole file is decoded
+ * before any entry is restored, so a corrupt file restores nothing.
+ */
+@Component
+public class RegistryCacheSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistryCacheSnapshot.class);
+
+    private static final int MAGIC = 0x44415243;
+
+    private static final int VERSION = 2;
+
+    private static final int NULL = -1;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final InterfaceRegistryCache interfaceRegistryCache;
+
+    private final InstanceRegistryCache instanceRegistryCache;
+
+    @Value("${admin.snapshot.file:}")
+    private String file;
+
+    @Value("${admin.snapshot.mmap:true}")
+    private boolean mmap;
+
+    @Value("${admin.snapshot.interval-millis:60000}")
+    private long intervalMillis;
+
+    @Value("${admin.snapshot.reconcile-delay-millis:180000}")
+    private long reconcileDelayMillis;
+
+    private ScheduledThreadPoolExecutor scheduler;
+
+    private volatile boolean reconciled = true;
+
+    public RegistryCacheSnapshot(InterfaceRegistryCache interfaceRegistryCache, InstanceRegistryCache instanceRegistryCache) {
+        this.interfaceRegistryCache = interfaceRegistryCache;
+        this.instanceRegistryCache = instanceRegistryCache;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (StringUtils.isEmpty(file)) {
+            return;
+        }
+        Path path = Paths.get(file);
+        if (Files.isRegularFile(path)) {
+            try {
+                long start = System.currentTimeMillis();
+                load(path);
+                reconciled = false;
+                logger.info("Restored registry cache snapshot " + path + " in " + (System.currentTimeMillis() - start) + "ms");
+            } catch (Exception e) {
+                logger.warn("Failed to restore registry cache snapshot " + path + ", ignore it", e);
+            }
+        }
+        scheduler = new ScheduledThreadPoolExecutor(1,
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-snapshot-%d").daemon(true).build());
+        // pending saves and the reconcile are dropped on shutdown, a running save completes
+        scheduler.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        if (!reconciled) {
+            scheduler.schedule(this::reconcile, reconcileDelayMillis, TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleWithFixedDelay(this::save, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    logger.warn("Timeout to wait for the running registry cache snapshot");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            save();
+        }
+    }
+
+    /**
+     * @return whether entries restored from the snapshot are still served without being confirmed by the registry
+     */
+    public boolean isStale() {
+        return !reconciled && (interfaceRegistryCache.isStale() || instanceRegistryCache.isStale());
+    }
+
+    void reconcile() {
+        int interfaces = interfaceRegistryCache.removeStaleServices();
+        int instances = instanceRegistryCache.removeStaleProviders();
+        reconciled = true;
+        logger.info("Reconciled registry cache snapshot, removed " + interfaces + " interface services and "
+                + instances + " instance services not notified by the registry");
+    }
+
+    /**
+     * serialized, the scheduled save and the final one on shutdown write the same temporary file
+     */
+    synchronized void save() {
+        if (!reconciled) {
+            // do not overwrite the snapshot with a cache still converging
+            return;
+        }
+        Path path = Paths.get(file);
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = Paths.get(path + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                write(out);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            logger.warn("Failed to write registry cache snapshot " + path, e);
+        }
+    }
+
+    void write(OutputStream out) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(body);
+        writeInterfaces(data, strings);
+        writeInstances(data, strings);
+        data.flush();
+
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            header.writeInt(bytes.length);
+            header.write(bytes);
+        }
+        body.writeTo(header);
+        header.flush();
+    }
+
+    void load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer;
+            if (mmap) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } else {
+                buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            }
+            read(buffer);
+        }
+    }
+
+    void read(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalStateException("Unknown registry cache snapshot format");
+        }
+        String[] strings = new String[readCount(buffer)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[readCount(buffer)];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        Map<String, Map<String, Map<String, URL>>> interfaces = readInterfaces(buffer, strings);
+        Map<String, Map<String, List<InstanceAddressURL>>> instances = readInstances(buffer, strings);
+        interfaces.forEach((category, services) -> services.forEach((service, urls) ->
+                interfaceRegistryCache.restoreService(category, service, urls)));
+        instances.forEach(instanceRegistryCache::restoreProviders);
+    }
+
+    /**
+     * a count of a corrupt file would allocate far more than the file holds
+     */
+    private static int readCount(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalStateException("Corrupt registry cache snapshot, count " + count + " at " + buffer.position());
+        }
+        return count;
+    }
+
+    /**
+     * category, service, then id and url components of each url
+     */
+    private void writeInterfaces(DataOutputStream data, Map<String, Integer> strings) throws IOException {
+        Map<String, Map<String, Map<String, URL>>> categories = interfaceRegistryCache.snapshot().getRegistryCache();
+        data.writeInt(categories.size());
+        for (Map.Entry<String, Map<String, Map<String, URL>>> category : categories.entrySet()) {
+            Map<String, Map<String, URL>> services = category.getValue();
+            writeString(data, strings, category.getKey());
+            data.writeInt(services.size());
+            for (Map.Entry<String, Map<String, URL>> service : services.entrySet()) {
+                Map<String, URL> urls = service.getValue();
+                writeString(data, strings, service.getKey());
+                data.writeInt(urls.size());
+                for (Map.Entry<String, URL> url : urls.entrySet()) {
+                    writeString(data, strings, url.getKey());
+                    writeUrl(data, strings, url.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return category --> service --> id --> url
+     */
+    private Map<String, Map<String, Map<String, URL>>> readInterfaces(ByteBuffer buffer, String[] strings) {
+        Map<String, Map<String, Map<String, URL>>> ret = new HashMap<>();
+        int categories = readCount(buffer);
+        for (int i = 0; i < categories; i++) {
+            String category = readString(buffer, strings);
+            Map<String, Map<String, URL>> services = ret.computeIfAbsent(category, key -> new HashMap<>());
+            int count = readCount(buffer);
+            for (int j = 0; j < count; j++) {
+                String service = readString(buffer, strings);
+                int size = readCount(buffer);
+                Map<String, URL> urls = new HashMap<>(size * 2);
+                for (int k = 0; k < size; k++) {
+                    String id = readString(buffer, strings);
+                    urls.put(id, readUrl(buffer, strings));
+                }
+                services.put(service, urls);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * the distinct metadata, the instances referring to them, then applications with the instances of each service
+     */
+    private void writeInstances(DataOutputStream data, Map<String, Integer> strings) throws IOException {
+        ConcurrentMap<String, Map<String, List<InstanceAddressURL>>> applications = instanceRegistryCache.get(Constants.PROVIDERS_CATEGORY);
+        Map<String, Map<String, List<InstanceAddressURL>>> providers = applications == null ? new HashMap<>() : new HashMap<>(applications);
+        Map<MetadataInfo, Integer> metadataRefs = new IdentityHashMap<>();
+        List<InstanceAddressURL> metadataOwners = new ArrayList<>();
+        Map<InstanceAddressURL, Integer> urlRefs = new IdentityHashMap<>();
+        List<InstanceAddressURL> urls = new ArrayList<>();
+        providers.replaceAll((application, services) -> new HashMap<>(services));
+        providers.values().forEach(services -> services.values().forEach(list -> list.forEach(url -> {
+            if (urlRefs.putIfAbsent(url, urls.size()) == null) {
+                urls.add(url);
+                if (metadataRefs.putIfAbsent(url.getMetadataInfo(), metadataOwners.size()) == null) {
+                    metadataOwners.add(url);
+                }
+            }
+        })));
+
+        data.writeInt(metadataOwners.size());
+        for (InstanceAddressURL owner : metadataOwners) {
+            MetadataInfo metadata = owner.getMetadataInfo();
+            writeString(data, strings, metadata.getApp());
+            writeString(data, strings, ServiceInstanceMetadataUtils.getExportedServicesRevision(owner.getInstance()));
+            Map<String, MetadataInfo.ServiceInfo> services = metadata.getServices();
+            data.writeInt(services.size());
+            for (Map.Entry<String, MetadataInfo.ServiceInfo> entry : services.entrySet()) {
+                MetadataInfo.ServiceInfo service = entry.getValue();
+                writeString(data, strings, entry.getKey());
+                writeString(data, strings, service.getName());
+                writeString(data, strings, service.getGroup());
+                writeString(data, strings, service.getVersion());
+                writeString(data, strings, service.getProtocol());
+                writeString(data, strings, service.getPath());
+                writeMap(data, strings, service.getParams());
+            }
+        }
+
+        data.writeInt(urls.size());
+        for (InstanceAddressURL url : urls) {
+            ServiceInstance instance = url.getInstance();
+            writeString(data, strings, instance.getServiceName());
+            writeString(data, strings, instance.getHost());
+            data.writeInt(instance.getPort());
+            writeMap(data, strings, instance.getMetadata());
+            data.writeInt(metadataRefs.get(url.getMetadataInfo()));
+        }
+
+        data.writeInt(providers.size());
+        for (Map.Entry<String, Map<String, List<InstanceAddressURL>>> application : providers.entrySet()) {
+            writeString(data, strings, application.getKey());
+            data.writeInt(application.getValue().size());
+            for (Map.Entry<String, List<InstanceAddressURL>> service : application.getValue().entrySet()) {
+                writeString(data, strings, service.getKey());
+                data.writeInt(service.getValue().size());
+                for (InstanceAddressURL url : service.getValue()) {
+                    data.writeInt(urlRefs.get(url));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return application --> service key --> instance urls
+     */
+    private Map<String, Map<String, List<InstanceAddressURL>>> readInstances(ByteBuffer buffer, String[] strings) {
+        MetadataInfo[] metadata = new MetadataInfo[readCount(buffer)];
+        for (int i = 0; i < metadata.length; i++) {
+            String app = readString(buffer, strings);
+            String revision = readString(buffer, strings);
+            int count = readCount(buffer);
+            Map<String, MetadataInfo.ServiceInfo> services = new HashMap<>(count * 2);
+            for (int j = 0; j < count; j++) {
+                String key = readString(buffer, strings);
+                services.put(key, new MetadataInfo.ServiceInfo(readString(buffer, strings), readString(buffer, strings),
+                        readString(buffer, strings), readString(buffer, strings), readString(buffer, strings),
+                        readMap(buffer, strings)));
+            }
+            metadata[i] = new MetadataInfo(app, revision, services);
+        }
+
+        InstanceAddressURL[] urls = new InstanceAddressURL[readCount(buffer)];
+        for (int i = 0; i < urls.length; i++) {
+            String serviceName = readString(buffer, strings);
+            String host = readString(buffer, strings);
+            DefaultServiceInstance instance = new DefaultServiceInstance(serviceName, host, buffer.getInt());
+            instance.setMetadata(readMap(buffer, strings));
+            urls[i] = new InstanceAddressURL(instance, metadata[buffer.getInt()]);
+        }
+
+        Map<String, Map<String, List<InstanceAddressURL>>> ret = new HashMap<>();
+        int applications = readCount(buffer);
+        for (int i = 0; i < applications; i++) {
+            String application = readString(buffer, strings);
+            int services = readCount(buffer);
+            Map<String, List<InstanceAddressURL>> providers = new HashMap<>(services * 2);
+            for (int j = 0; j < services; j++) {
+                String serviceKey = readString(buffer, strings);
+                int count = readCount(buffer);
+                List<InstanceAddressURL> list = new ArrayList<>(count);
+                for (int k = 0; k < count; k++) {
+                    list.add(urls[buffer.getInt()]);
+                }
+                providers.put(serviceKey, list);
+            }
+            ret.put(application, providers);
+        }
+        return ret;
+    }
+
+    /**
+     * the username and password are not persisted
+     */
+    private static void writeUrl(DataOutputStream data, Map<String, Integer> strings, URL url) throws IOException {
+        writeString(data, strings, url.getProtocol());
+        writeString(data, strings, url.getHost());
+        data.writeInt(url.getPort());
+        writeString(data, strings, url.getPath());
+        writeMap(data, strings, url.getParameters());
+    }
+
+    private static URL readUrl(ByteBuffer buffer, String[] strings) {
+        return new URL(readString(buffer, strings), null, null,
+                readString(buffer, strings), buffer.getInt(), readString(buffer, strings), readMap(buffer, strings));
+    }
+
+    private static void writeMap(DataOutputStream data, Map<String, Integer> strings, Map<String, String> map) throws IOException {
+        if (map == null) {
+            data.writeInt(NULL);
+            return;
+        }
+        data.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(data, strings, entry.getKey());
+            writeString(data, strings, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(ByteBuffer buffer, String[] strings) {
+        if (buffer.getInt(buffer.position()) == NULL) {
+            buffer.getInt();
+            return null;
+        }
+        int size = readCount(buffer);
+        Map<String, String> map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(readString(buffer, strings), readString(buffer, strings));
+        }
+        return map;
+    }
+
+    private static void writeString(DataOutputStream data, Map<String, Integer> strings, String string) throws IOException {
+        data.writeInt(string == null ? NULL : strings.computeIfAbsent(string, key -> strings.size()));
+    }
+
+    private static String readString(ByteBuffer buffer, String[] strings) {
+        int ref = buffer.getInt();
+        return ref == NULL ? null : strings[ref];
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.model.domain.RegistrySource;
+import org.apache.dubbo.admin.model.dto.RegistryChangeDTO;
+import org.apache.dubbo.admin.service.RegistryCacheListener;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.registry.client.InstanceAddressURL;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bounded log of the url changes of {@link InterfaceRegistryCache} and {@link InstanceRegistryCache}, pushed to
+ * the subscribers as server-sent events.
+ * every change gets a sequence number, a subscriber resumes after the last sequence it received and gets the
+ * changes since then coalesced, the last change of a service address wins. A subscriber which is behind the
+ * oldest change in the log gets a reset event and has to reload the lists.
+ * sequences start from the boot time in micros, so that a sequence of a previous run is never taken as current.
+ */
+@Component
+public class RegistryChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistryChangeFeed.class);
+
+    public static final String CHANGES_EVENT = "changes";
+
+    public static final String RESET_EVENT = "reset";
+
+    private final InterfaceRegistryCache interfaceRegistryCache;
+
+    private final InstanceRegistryCache instanceRegistryCache;
+
+    @Value("${admin.change-feed.capacity:10000}")
+    private int capacity;
+
+    @Value("${admin.change-feed.flush-millis:1000}")
+    private long flushMillis;
+
+    @Value("${admin.change-feed.timeout-millis:600000}")
+    private long timeoutMillis;
+
+    /**
+     * ring of the last changes, the change of sequence s is at s % length
+     */
+    private RegistryChangeDTO[] changes;
+
+    private final long firstSequence = System.currentTimeMillis() * 1000;
+
+    /**
+     * sequence of the last change
+     */
+    private long sequence = firstSequence;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public RegistryChangeFeed(InterfaceRegistryCache interfaceRegistryCache, InstanceRegistryCache instanceRegistryCache) {
+        this.interfaceRegistryCache = interfaceRegistryCache;
+        this.instanceRegistryCache = instanceRegistryCache;
+    }
+
+    @PostConstruct
+    public void init() {
+        changes = new RegistryChangeDTO[Math.max(1, capacity)];
+        interfaceRegistryCache.addListener(new Listener(RegistrySource.INTERFACE));
+        instanceRegistryCache.addListener(new Listener(RegistrySource.INSTANCE));
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder().namingPattern("dubbo-admin-change-feed-%d").daemon(true).build());
+        scheduler.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * @param after last sequence received by the subscriber, null to receive the changes from now on
+     */
+    public SseEmitter subscribe(Long after) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, after == null ? getSequence() : after);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        if (after == null) {
+            // tell the subscriber where it starts from
+            send(subscriber, CHANGES_EVENT, subscriber.position, Collections.emptyList());
+        }
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return changes after the sequence, coalesced by service address, or null if some of them are dropped from the log
+     */
+    public synchronized List<RegistryChangeDTO> since(long after) {
+        if (after > sequence || after < sequence - changes.length || after < firstSequence) {
+            return null;
+        }
+        Map<String, RegistryChangeDTO> coalesced = new LinkedHashMap<>();
+        for (long s = after + 1; s <= sequence; s++) {
+            RegistryChangeDTO change = changes[(int) (s % changes.length)];
+            String key = change.getRegistrySource() + Constants.PATH_SEPARATOR + change.getCategory()
+                    + Constants.PATH_SEPARATOR + change.getService() + Constants.PATH_SEPARATOR + change.getAddress();
+            coalesced.remove(key);
+            coalesced.put(key, change);
+        }
+        return new ArrayList<>(coalesced.values());
+    }
+
+    synchronized void append(RegistrySource registrySource, String type, String category, String service, URL url) {
+        RegistryChangeDTO change = new RegistryChangeDTO();
+        change.setSequence(++sequence);
+        change.setType(type);
+        change.setRegistrySource(registrySource);
+        change.setCategory(category);
+        change.setService(service);
+        change.setAddress(url.getAddress());
+        if (url instanceof InstanceAddressURL) {
+            change.setApplication(((InstanceAddressURL) url).getInstance().getServiceName());
+        } else {
+            change.setApplication(url.getParameter(Constants.APPLICATION_KEY));
+        }
+        changes[(int) (sequence % changes.length)] = change;
+    }
+
+    void flush() {
+        for (Subscriber subscriber : subscribers) {
+            List<RegistryChangeDTO> batch = since(subscriber.position);
+            if (batch == null) {
+                long position = getSequence();
+                if (send(subscriber, RESET_EVENT, position, Collections.emptyList())) {
+                    subscriber.position = position;
+                }
+            } else if (!batch.isEmpty()) {
+                long position = batch.get(batch.size() - 1).getSequence();
+                if (send(subscriber, CHANGES_EVENT, position, batch)) {
+                    subscriber.position = position;
+                }
+            }
+        }
+    }
+
+    private boolean send(Subscriber subscriber, String name, long position, List<RegistryChangeDTO> batch) {
+        try {
+            subscriber.emitter.send(SseEmitter.event().id(String.valueOf(position)).name(name).data(batch));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            logger.debug("Change feed subscriber is gone: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private long position;
+
+        Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+    }
+
+    private class Listener implements RegistryCacheListener {
+
+        private final RegistrySource registrySource;
+
+        Listener(RegistrySource registrySource) {
+            this.registrySource = registrySource;
+        }
+
+        @Override
+        public void onUrlAdded(String category, String service, String id, URL url) {
+            append(registrySource, RegistryChangeDTO.ADDED, category, service, url);
+        }
+
+        @Override
+        public void onUrlRemoved(String category, String service, String id, URL url) {
+            append(registrySource, RegistryChangeDTO.REMOVED, category, service, url);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.CoderUtil;
+import org.apache.dubbo.admin.common.util.ServiceTestUtil;
+import org.apache.dubbo.admin.common.util.ServiceTestV3Util;
+import org.apache.dubbo.admin.model.domain.MethodMetadata;
+import org.apache.dubbo.metadata.definition.model.FullServiceDefinition;
+import org.apache.dubbo.metadata.definition.model.MethodDefinition;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.Gson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * service definitions parsed from the provider metadata, keyed by the hash of the metadata, so that the same
+ * metadata is parsed once. The method metadata of a definition are generated once per method signature.
+ * the definitions of dubbo 2.x are parsed into {@link org.apache.dubbo.admin.model.domain.FullServiceDefinition},
+ * the others into {@link FullServiceDefinition}
+ */
+@Component
+public class ServiceDefinitionCache {
+
+    @Value("${admin.service-definition.cache.max-size:1000}")
+    private long maxSize;
+
+    private final Gson gson = new Gson();
+
+    private Cache<String, ParsedDefinition> definitions;
+
+    @PostConstruct
+    public void init() {
+        definitions = CacheBuilder.newBuilder().maximumSize(Math.max(1, maxSize)).build();
+    }
+
+    /**
+     * @param legacy whether the metadata is written by dubbo 2.x
+     * @return the parsed definition, null if the metadata is empty
+     * @throws com.google.gson.JsonParseException if the metadata is not a service definition
+     */
+    public Object getDefinition(String metadata, boolean legacy) {
+        return get(metadata, legacy).definition;
+    }
+
+    /**
+     * @param signature method name~parameter type;parameter type
+     * @return metadata of the first method of the signature, null if there is no such method
+     */
+    public MethodMetadata getMethodMetadata(String metadata, boolean legacy, String signature) {
+        ParsedDefinition parsed = get(metadata, legacy);
+        Supplier<MethodMetadata> generator = parsed.methods.get(signature);
+        if (generator == null) {
+            return null;
+        }
+        return parsed.methodMetadata.computeIfAbsent(signature, key -> generator.get());
+    }
+
+    public long size() {
+        return definitions.size();
+    }
+
+    private ParsedDefinition get(String metadata, boolean legacy) {
+        String key = (legacy ? "2:" : "3:") + CoderUtil.hash64(metadata);
+        ParsedDefinition parsed = definitions.getIfPresent(key);
+        if (parsed == null) {
+            // parsed outside the cache, so that a parse error reaches the caller as it is
+            parsed = legacy ? parseLegacy(metadata) : parse(metadata);
+            definitions.put(key, parsed);
+        }
+        return parsed;
+    }
+
+    private ParsedDefinition parseLegacy(String metadata) {
+        org.apache.dubbo.admin.model.domain.FullServiceDefinition definition = gson.fromJson(metadata,
+                org.apache.dubbo.admin.model.domain.FullServiceDefinition.class);
+        Map<String, Supplier<MethodMetadata>> methods = new HashMap<>();
+        if (definition != null && definition.getMethods() != null) {
+            for (org.apache.dubbo.admin.model.domain.MethodDefinition method : definition.getMethods()) {
+                if (method.getParameterTypes() == null) {
+                    continue;
+                }
+                methods.putIfAbsent(signature(method.getName(), method.getParameterTypes()),
+                        () -> ServiceTestUtil.generateMethodMeta(definition, method));
+            }
+        }
+        return new ParsedDefinition(definition, methods);
+    }
+
+    private ParsedDefinition parse(String metadata) {
+        FullServiceDefinition definition = gson.fromJson(metadata, FullServiceDefinition.class);
+        Map<String, Supplier<MethodMetadata>> methods = new HashMap<>();
+        if (definition != null && definition.getMethods() != null) {
+            for (MethodDefinition method : definition.getMethods()) {
+                if (method.getParameterTypes() == null) {
+                    continue;
+                }
+                methods.putIfAbsent(signature(method.getName(), method.getParameterTypes()),
+                        () -> ServiceTestV3Util.generateMethodMeta(definition, method));
+            }
+        }
+        return new ParsedDefinition(definition, methods);
+    }
+
+    /**
+     * same as the signature matched by {@link ServiceTestUtil#sameMethod}
+     */
+    private static String signature(String name, String[] parameterTypes) {
+        return name + "~" + String.join(";", parameterTypes);
+    }
+
+    private static class ParsedDefinition {
+
+        private final Object definition;
+
+        /**
+         * signature --> generator of the method metadata
+         */
+        private final Map<String, Supplier<MethodMetadata>> methods;
+
+        private final ConcurrentMap<String, MethodMetadata> methodMetadata = new ConcurrentHashMap<>();
+
+        ParsedDefinition(Object definition, Map<String, Supplier<MethodMetadata>> methods) {
+            this.definition = definition;
+            this.methods = Collections.unmodifiableMap(methods);
+        }
+    }
+}
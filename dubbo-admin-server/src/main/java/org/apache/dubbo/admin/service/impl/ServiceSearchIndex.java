@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.common.util.Tool;
+import org.apache.dubbo.admin.model.domain.RegistrySource;
+import org.apache.dubbo.admin.model.dto.ServiceDTO;
+import org.apache.dubbo.admin.service.RegistryCacheListener;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.registry.client.InstanceAddressURL;
+import org.apache.dubbo.registry.client.ServiceInstance;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * search index of the service, application and address keys of providers in {@link InterfaceRegistryCache}
+ * and {@link InstanceRegistryCache}, and the sorted {@link ServiceDTO}s of them.
+ * instance providers are indexed by their host, as they are looked up by host.
+ */
+@Component
+public class ServiceSearchIndex implements RegistryCacheListener {
+
+    private final KeywordIndex services = new KeywordIndex();
+
+    private final KeywordIndex applications = new KeywordIndex();
+
+    private final KeywordIndex addresses = new KeywordIndex();
+
+    /**
+     * ServiceDTO --> count of urls
+     */
+    private final TreeMap<ServiceDTO, Integer> serviceDTOs = new TreeMap<>();
+
+    /**
+     * service / application / address --> ServiceDTO --> count of urls, guarded by serviceDTOs
+     */
+    private final Map<String, Map<ServiceDTO, Integer>> serviceDTOsByService = new HashMap<>();
+
+    private final Map<String, Map<ServiceDTO, Integer>> serviceDTOsByApplication = new HashMap<>();
+
+    private final Map<String, Map<ServiceDTO, Integer>> serviceDTOsByAddress = new HashMap<>();
+
+    /**
+     * sorted snapshot of serviceDTOs, null when it is out of date
+     */
+    private List<ServiceDTO> sortedServiceDTOs;
+
+    @Autowired
+    private InterfaceRegistryCache interfaceRegistryCache;
+
+    @Autowired
+    private InstanceRegistryCache instanceRegistryCache;
+
+    @PostConstruct
+    public void init() {
+        interfaceRegistryCache.addListener(this);
+        instanceRegistryCache.addListener(new RegistryCacheListener() {
+            @Override
+            public void onUrlAdded(String category, String service, String id, URL url) {
+                ServiceInstance instance = ((InstanceAddressURL) url).getInstance();
+                add(RegistrySource.INSTANCE, instance.getServiceName(), service, instance.getHost());
+            }
+
+            @Override
+            public void onUrlRemoved(String category, String service, String id, URL url) {
+                ServiceInstance instance = ((InstanceAddressURL) url).getInstance();
+                remove(RegistrySource.INSTANCE, instance.getServiceName(), service, instance.getHost());
+            }
+        });
+    }
+
+    @Override
+    public void onUrlAdded(String category, String service, String id, URL url) {
+        if (Constants.PROVIDERS_CATEGORY.equals(category)) {
+            add(RegistrySource.INTERFACE, url.getParameter(Constants.APPLICATION_KEY), service, url.getAddress());
+        }
+    }
+
+    @Override
+    public void onUrlRemoved(String category, String service, String id, URL url) {
+        if (Constants.PROVIDERS_CATEGORY.equals(category)) {
+            remove(RegistrySource.INTERFACE, url.getParameter(Constants.APPLICATION_KEY), service, url.getAddress());
+        }
+    }
+
+    private void add(RegistrySource registrySource, String application, String service, String address) {
+        services.add(service);
+        applications.add(application);
+        addresses.add(address);
+        ServiceDTO serviceDTO = toServiceDTO(application, service, registrySource);
+        synchronized (serviceDTOs) {
+            if (increment(serviceDTOs, serviceDTO)) {
+                sortedServiceDTOs = null;
+            }
+            increment(serviceDTOsByService.computeIfAbsent(service, key -> new HashMap<>()), serviceDTO);
+            if (application != null) {
+                increment(serviceDTOsByApplication.computeIfAbsent(application, key -> new HashMap<>()), serviceDTO);
+            }
+            if (address != null) {
+                increment(serviceDTOsByAddress.computeIfAbsent(address, key -> new HashMap<>()), serviceDTO);
+            }
+        }
+    }
+
+    private void remove(RegistrySource registrySource, String application, String service, String address) {
+        services.remove(service);
+        applications.remove(application);
+        addresses.remove(address);
+        ServiceDTO serviceDTO = toServiceDTO(application, service, registrySource);
+        synchronized (serviceDTOs) {
+            if (decrement(serviceDTOs, serviceDTO)) {
+                sortedServiceDTOs = null;
+            }
+            decrement(serviceDTOsByService, service, serviceDTO);
+            decrement(serviceDTOsByApplication, application, serviceDTO);
+            decrement(serviceDTOsByAddress, address, serviceDTO);
+        }
+    }
+
+    /**
+     * @return true if the ServiceDTO is new
+     */
+    private static boolean increment(Map<ServiceDTO, Integer> counts, ServiceDTO serviceDTO) {
+        return counts.merge(serviceDTO, 1, Integer::sum) == 1;
+    }
+
+    /**
+     * @return true if the ServiceDTO is gone
+     */
+    private static boolean decrement(Map<ServiceDTO, Integer> counts, ServiceDTO serviceDTO) {
+        Integer count = counts.get(serviceDTO);
+        if (count == null) {
+            return false;
+        }
+        if (count > 1) {
+            counts.put(serviceDTO, count - 1);
+            return false;
+        }
+        counts.remove(serviceDTO);
+        return true;
+    }
+
+    private static void decrement(Map<String, Map<ServiceDTO, Integer>> serviceDTOsByKey, String key, ServiceDTO serviceDTO) {
+        Map<ServiceDTO, Integer> counts = key == null ? null : serviceDTOsByKey.get(key);
+        if (counts != null && decrement(counts, serviceDTO) && counts.isEmpty()) {
+            serviceDTOsByKey.remove(key);
+        }
+    }
+
+    /**
+     * @param pattern one of {@link Constants#SERVICE}, {@link Constants#APPLICATION}, {@link Constants#IP}
+     * @param glob    case insensitive glob, '*' matches any characters and '?' matches one character
+     * @return keys which start with the glob
+     */
+    public Set<String> search(String pattern, String glob) {
+        KeywordIndex index = getIndex(pattern);
+        return index == null ? new HashSet<>() : index.search(glob);
+    }
+
+    /**
+     * only the ServiceDTOs of the matched keys are sorted, all of them are read from the sorted snapshot
+     *
+     * @param pattern one of {@link Constants#SERVICE}, {@link Constants#APPLICATION}, {@link Constants#IP}
+     * @param glob    case insensitive glob, '*' matches any characters and '?' matches one character
+     * @return services whose key starts with the glob in the order of {@link ServiceDTO#compareTo}, read only
+     */
+    public List<ServiceDTO> searchServiceDTOs(String pattern, String glob) {
+        Map<String, Map<ServiceDTO, Integer>> serviceDTOsByKey = getServiceDTOsByKey(pattern);
+        if (serviceDTOsByKey == null) {
+            return Collections.emptyList();
+        }
+        if (Constants.ANY_VALUE.equals(glob)) {
+            return getSortedServiceDTOs();
+        }
+        Set<String> keys = search(pattern, glob);
+        Set<ServiceDTO> ret = new TreeSet<>();
+        synchronized (serviceDTOs) {
+            for (String key : keys) {
+                Map<ServiceDTO, Integer> counts = serviceDTOsByKey.get(key);
+                if (counts != null) {
+                    ret.addAll(counts.keySet());
+                }
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(ret));
+    }
+
+    /**
+     * @return all services of both registries in the order of {@link ServiceDTO#compareTo}, read only
+     */
+    public List<ServiceDTO> getSortedServiceDTOs() {
+        synchronized (serviceDTOs) {
+            if (sortedServiceDTOs == null) {
+                sortedServiceDTOs = Collections.unmodifiableList(new ArrayList<>(serviceDTOs.keySet()));
+            }
+            return sortedServiceDTOs;
+        }
+    }
+
+    static ServiceDTO toServiceDTO(String application, String service, RegistrySource registrySource) {
+        ServiceDTO serviceDTO = new ServiceDTO();
+        serviceDTO.setAppName(application);
+        serviceDTO.setService(Tool.getInterface(service));
+        serviceDTO.setGroup(Tool.getGroup(service));
+        serviceDTO.setVersion(Tool.getVersion(service));
+        serviceDTO.setRegistrySource(registrySource);
+        return serviceDTO;
+    }
+
+    private Map<String, Map<ServiceDTO, Integer>> getServiceDTOsByKey(String pattern) {
+        if (Constants.SERVICE.equals(pattern)) {
+            return serviceDTOsByService;
+        } else if (Constants.APPLICATION.equals(pattern)) {
+            return serviceDTOsByApplication;
+        } else if (Constants.IP.equals(pattern)) {
+            return serviceDTOsByAddress;
+        }
+        return null;
+    }
+
+    private KeywordIndex getIndex(String pattern) {
+        if (Constants.SERVICE.equals(pattern)) {
+            return services;
+        } else if (Constants.APPLICATION.equals(pattern)) {
+            return applications;
+        } else if (Constants.IP.equals(pattern)) {
+            return addresses;
+        }
+        return null;
+    }
+}
@@ -21,6 +21,7 @@ import org.junit.Test;
 
 import static org.assertj.core.api.Java6Assertions.fail;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 
 public class CoderUtilTest {
@@ -54,6 +55,18 @@ public class CoderUtilTest {
         assertEquals(output, CoderUtil.MD5_32bit(input));
     }
 
+    @Test
+    public void hash64() {
+        assertNull(CoderUtil.hash64(null));
+        assertNull(CoderUtil.hash64(""));
+
+        String input = "dubbo://127.0.0.1:20880/org.apache.dubbo.DemoService?application=demo";
+        String output = CoderUtil.hash64(input);
+        assertEquals(16, output.length());
+        assertEquals(output, CoderUtil.hash64(new String(input)));
+        assertNotEquals(output, CoderUtil.hash64(input + "&timestamp=1"));
+    }
+
     @Test
     public void decodeBase64() {
         try {
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.controller;
+
+import org.apache.dubbo.admin.common.util.Pair;
+import org.apache.dubbo.admin.config.ConfigCenter;
+import org.apache.dubbo.admin.model.dto.StatusDTO;
+import org.apache.dubbo.admin.registry.mapping.AdminMappingListener;
+import org.apache.dubbo.admin.registry.metadata.MetaDataCollector;
+import org.apache.dubbo.admin.registry.metadata.impl.CachingMetaDataCollector;
+import org.apache.dubbo.admin.service.RegistryServerSync;
+import org.apache.dubbo.admin.service.impl.GenericServiceImpl;
+import org.apache.dubbo.admin.service.impl.InstanceRegistryCache;
+import org.apache.dubbo.admin.service.impl.RegistryCacheSnapshot;
+
+import com.google.common.cache.CacheStats;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StatusControllerTest {
+
+    private final RegistryCacheSnapshot registryCacheSnapshot = mock(RegistryCacheSnapshot.class);
+
+    private final GenericServiceImpl genericService = mock(GenericServiceImpl.class);
+
+    private final AdminMappingListener mappingListener = mock(AdminMappingListener.class);
+
+    private final ConfigCenter configCenter = mock(ConfigCenter.class);
+
+    private final RegistryServerSync registryServerSync = mock(RegistryServerSync.class);
+
+    private final InstanceRegistryCache instanceRegistryCache = mock(InstanceRegistryCache.class);
+
+    @Test
+    public void testStatus() {
+        when(registryCacheSnapshot.isStale()).thenReturn(true);
+        when(genericService.getReferenceCount()).thenReturn(2L);
+        when(genericService.getReferenceStats()).thenReturn(new CacheStats(5, 2, 2, 0, 10, 1));
+        when(mappingListener.isReady()).thenReturn(false);
+        when(mappingListener.getProgress()).thenReturn(new Pair<>(3, 1));
+        when(configCenter.getBootstrapTimings()).thenReturn(Collections.singletonMap("dubboRegistry", 20L));
+        when(registryServerSync.getNotifications()).thenReturn(7L);
+        when(registryServerSync.getAddedUrls()).thenReturn(30L);
+        when(instanceRegistryCache.getInternedCounts()).thenReturn(new Pair<>(4, 12));
+        CachingMetaDataCollector metadataCache = mock(CachingMetaDataCollector.class);
+        when(metadataCache.getHitCount()).thenReturn(8L);
+        when(metadataCache.isWatching()).thenReturn(true);
+
+        StatusDTO status = newController(metadataCache).status("dev");
+
+        assertTrue(status.isRegistryCacheStale());
+        assertEquals(Long.valueOf(20), status.getBootstrapTimings().get("dubboRegistry"));
+        assertEquals(Long.valueOf(7), status.getRegistryNotifications().get("notifications"));
+        assertEquals(Long.valueOf(30), status.getRegistryNotifications().get("addedUrls"));
+        assertEquals(4, status.getInternedRevisions());
+        assertEquals(12, status.getInternedUrls());
+        assertFalse(status.isMappingReady());
+        assertEquals(3, status.getMappingListenedApps());
+        assertEquals(1, status.getMappingPendingApps());
+        assertEquals(Long.valueOf(2), status.getGenericReferences().get("size"));
+        assertEquals(Long.valueOf(5), status.getGenericReferences().get("hits"));
+        assertEquals(Long.valueOf(1), status.getGenericReferences().get("evictions"));
+        assertEquals(Long.valueOf(8), status.getMetadataCache().get("hits"));
+        assertTrue(status.isMetadataCacheWatching());
+    }
+
+    @Test
+    public void testStatusWithoutMetadataCache() {
+        when(genericService.getReferenceStats()).thenReturn(new CacheStats(0, 0, 0, 0, 0, 0));
+        when(mappingListener.getProgress()).thenReturn(new Pair<>(0, 0));
+        when(instanceRegistryCache.getInternedCounts()).thenReturn(new Pair<>(0, 0));
+
+        StatusDTO status = newController(mock(MetaDataCollector.class)).status("dev");
+
+        assertNull(status.getMetadataCache());
+        assertFalse(status.isMetadataCacheWatching());
+    }
+
+    private StatusController newController(MetaDataCollector metaDataCollector) {
+        return new StatusController(registryCacheSnapshot, genericService, mappingListener, metaDataCollector,
+                configCenter, registryServerSync, instanceRegistryCache);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.registry.mapping;
+
+import org.apache.dubbo.admin.service.impl.InstanceRegistryCache;
+import org.apache.dubbo.metadata.MappingChangedEvent;
+import org.apache.dubbo.registry.client.ServiceDiscovery;
+
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AdminMappingListenerTest {
+
+    private ServiceDiscovery serviceDiscovery;
+
+    private AdminMappingListener mappingListener;
+
+    @Before
+    public void setUp() {
+        serviceDiscovery = mock(ServiceDiscovery.class);
+        mappingListener = new AdminMappingListener(serviceDiscovery, mock(InstanceRegistryCache.class), 4);
+    }
+
+    @After
+    public void tearDown() {
+        mappingListener.destroy();
+    }
+
+    @Test
+    public void testRegisterOncePerApp() throws Exception {
+        CountDownLatch registering = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        when(serviceDiscovery.getInstances("app1")).thenAnswer(invocation -> {
+            registering.countDown();
+            done.await(5, TimeUnit.SECONDS);
+            return Collections.emptyList();
+        });
+        mappingListener.markScanned();
+        mappingListener.onEvent(event("service1", "app1"));
+        assertTrue(registering.await(5, TimeUnit.SECONDS));
+        // the app is being registered, another service of it does not register it again
+        mappingListener.onEvent(event("service2", "app1", "app2"));
+        awaitPending(1);
+        assertFalse(mappingListener.isReady());
+
+        done.countDown();
+        verify(serviceDiscovery, timeout(5000).times(2)).addServiceInstancesChangedListener(any());
+        mappingListener.onEvent(event("service3", "app1", "app2"));
+        verify(serviceDiscovery, times(1)).getInstances("app1");
+        verify(serviceDiscovery, times(1)).getInstances("app2");
+        awaitReady();
+        assertEquals(2, mappingListener.getProgress().getKey().intValue());
+    }
+
+    @Test
+    public void testFailedRegistrationIsRetried() throws Exception {
+        when(serviceDiscovery.getInstances("app1")).thenThrow(new IllegalStateException("unavailable"))
+                .thenReturn(Collections.emptyList());
+        mappingListener.markScanned();
+        mappingListener.onEvent(event("service1", "app1"));
+        verify(serviceDiscovery, timeout(5000)).getInstances("app1");
+        awaitReady();
+        assertEquals(0, mappingListener.getProgress().getKey().intValue());
+
+        mappingListener.onEvent(event("service1", "app1"));
+        verify(serviceDiscovery, timeout(5000)).addServiceInstancesChangedListener(any());
+        awaitReady();
+        assertEquals(1, mappingListener.getProgress().getKey().intValue());
+    }
+
+    @Test
+    public void testNotReadyUntilScanned() throws Exception {
+        // no app is known before the scan, which is not ready either
+        assertFalse(mappingListener.isReady());
+        mappingListener.onEvent(event("service1", "app1"));
+        awaitPending(0);
+        assertFalse(mappingListener.isReady());
+
+        mappingListener.markScanned();
+        assertTrue(mappingListener.isReady());
+    }
+
+    private void awaitReady() throws InterruptedException {
+        awaitPending(0);
+        assertTrue(mappingListener.isReady());
+    }
+
+    private void awaitPending(int pending) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (mappingListener.getProgress().getValue() != pending && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(pending, mappingListener.getProgress().getValue().intValue());
+    }
+
+    private static MappingChangedEvent event(String serviceKey, String... apps) {
+        return new MappingChangedEvent(serviceKey, Sets.newHashSet(apps));
+    }
+}
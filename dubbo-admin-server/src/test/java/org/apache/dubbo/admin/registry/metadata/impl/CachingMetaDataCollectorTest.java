@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.registry.metadata.impl;
+
+import org.apache.dubbo.admin.registry.metadata.MetaDataCollector;
+import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.apache.dubbo.common.constants.CommonConstants.PROVIDER_SIDE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingMetaDataCollectorTest {
+
+    private final MetadataIdentifier found = new MetadataIdentifier("org.apache.dubbo.demo.DemoService", "1.0.0", null, PROVIDER_SIDE, "demo-provider");
+
+    private final MetadataIdentifier missing = new MetadataIdentifier("org.apache.dubbo.demo.MissingService", "1.0.0", null, PROVIDER_SIDE, "demo-provider");
+
+    private MetaDataCollector delegate;
+
+    private CachingMetaDataCollector collector;
+
+    private Consumer<MetadataIdentifier> changeListener;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        delegate = mock(MetaDataCollector.class);
+        ArgumentCaptor<Consumer<MetadataIdentifier>> captor = ArgumentCaptor.forClass(Consumer.class);
+        when(delegate.setChangeListener(captor.capture())).thenReturn(true);
+        when(delegate.getProviderMetaData(found)).thenReturn("v1", "v2");
+        collector = new CachingMetaDataCollector(delegate, 100, 60000, 60000);
+        collector.init();
+        changeListener = captor.getValue();
+    }
+
+    @Test
+    public void testHitsAndNegativeHits() {
+        assertTrue(collector.isWatching());
+        assertEquals("v1", collector.getProviderMetaData(found));
+        assertEquals("v1", collector.getProviderMetaData(found));
+        assertNull(collector.getProviderMetaData(missing));
+        assertNull(collector.getProviderMetaData(missing));
+        verify(delegate, times(2)).getProviderMetaData(any());
+        assertEquals(1, collector.getHitCount());
+        assertEquals(1, collector.getNegativeHitCount());
+        assertEquals(2, collector.getMissCount());
+    }
+
+    @Test
+    public void testWatchInvalidates() {
+        assertEquals("v1", collector.getProviderMetaData(found));
+        changeListener.accept(found);
+        assertEquals("v2", collector.getProviderMetaData(found));
+        assertEquals(1, collector.getInvalidationCount());
+    }
+
+    @Test
+    public void testBatchReadsOnlyTheUncached() {
+        when(delegate.getMetaData(anyCollection())).thenReturn(Collections.singletonMap(missing, null));
+        assertEquals("v1", collector.getProviderMetaData(found));
+        Map<MetadataIdentifier, String> metadata = collector.getMetaData(Arrays.asList(found, missing));
+        assertEquals("v1", metadata.get(found));
+        assertTrue(metadata.containsKey(missing));
+        assertNull(metadata.get(missing));
+        verify(delegate).getMetaData(Collections.singletonList(missing));
+
+        assertNull(collector.getProviderMetaData(missing));
+        assertEquals(1, collector.getNegativeHitCount());
+    }
+
+    @Test
+    public void testBatchFailureIsNotCachedAsMissing() {
+        // the delegate failed to read the identifier, so it is not in the map
+        when(delegate.getMetaData(anyCollection())).thenReturn(Collections.emptyMap());
+        assertFalse(collector.getMetaData(Collections.singletonList(found)).containsKey(found));
+
+        assertEquals("v1", collector.getProviderMetaData(found));
+        assertEquals(0, collector.getNegativeHitCount());
+    }
+}
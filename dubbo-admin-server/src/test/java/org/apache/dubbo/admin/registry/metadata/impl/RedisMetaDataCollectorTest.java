@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.registry.metadata.impl;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.metadata.report.identifier.KeyTypeEnum;
+import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.dubbo.common.constants.CommonConstants.PROVIDER_SIDE;
+import static org.apache.dubbo.metadata.MetadataConstants.META_DATA_STORE_TAG;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RedisMetaDataCollectorTest {
+
+    private RedisStandIn redis;
+
+    private RedisMetaDataCollector collector;
+
+    @Before
+    public void setUp() throws IOException {
+        redis = new RedisStandIn();
+        collector = new RedisMetaDataCollector();
+        collector.setUrl(URL.valueOf("redis://127.0.0.1:" + redis.getPort() + "?cluster=true"));
+        collector.init();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        redis.close();
+    }
+
+    @Test
+    public void testClusterClientIsShared() {
+        MetadataIdentifier identifier = identifier("DemoService");
+        redis.put(identifier, "{}");
+        int connections = redis.getConnections();
+        for (int i = 0; i < 20; i++) {
+            assertEquals("{}", collector.getProviderMetaData(identifier));
+        }
+        assertNull(collector.getProviderMetaData(identifier("MissingService")));
+        // the slots are discovered once in init, the reads reuse one pooled connection
+        assertTrue(redis.getConnections() - connections <= 1);
+        assertEquals(1, redis.getSlotDiscoveries());
+    }
+
+    @Test
+    public void testClusterBatchIsPipelined() {
+        List<MetadataIdentifier> identifiers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            MetadataIdentifier identifier = identifier("DemoService" + i);
+            identifiers.add(identifier);
+            if (i % 2 == 0) {
+                redis.put(identifier, "metadata" + i);
+            }
+        }
+        Map<MetadataIdentifier, String> metadata = collector.getMetaData(identifiers);
+        assertEquals(100, metadata.size());
+        assertEquals(50, metadata.values().stream().filter(Objects::nonNull).count());
+        assertNull(metadata.get(identifiers.get(41)));
+        assertEquals("metadata42", metadata.get(identifiers.get(42)));
+        // the reads of the node are written before the first reply is read, a read per round trip would be 1
+        assertTrue(redis.getMaxPipelined() > 1);
+    }
+
+    private static MetadataIdentifier identifier(String service) {
+        return new MetadataIdentifier("org.apache.dubbo.demo." + service, "1.0.0", null, PROVIDER_SIDE, "demo-provider");
+    }
+
+    /**
+     * single node cluster speaking enough of the redis protocol for the collector
+     */
+    private static class RedisStandIn implements Closeable {
+
+        private final ServerSocket server;
+
+        private final Map<String, String> data = new ConcurrentHashMap<>();
+
+        private final AtomicInteger connections = new AtomicInteger();
+
+        private final AtomicInteger slotDiscoveries = new AtomicInteger();
+
+        private final AtomicInteger maxPipelined = new AtomicInteger();
+
+        RedisStandIn() throws IOException {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::accept, "redis-stand-in");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return server.getLocalPort();
+        }
+
+        int getConnections() {
+            return connections.get();
+        }
+
+        int getSlotDiscoveries() {
+            return slotDiscoveries.get();
+        }
+
+        int getMaxPipelined() {
+            return maxPipelined.get();
+        }
+
+        void put(MetadataIdentifier identifier, String value) {
+            data.put(identifier.getUniqueKey(KeyTypeEnum.UNIQUE_KEY) + META_DATA_STORE_TAG, value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    connections.incrementAndGet();
+                    Thread handler = new Thread(() -> serve(socket), "redis-stand-in-connection");
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket s = socket) {
+                InputStream in = new BufferedInputStream(s.getInputStream());
+                OutputStream out = s.getOutputStream();
+                int pipelined = 0;
+                while (true) {
+                    List<String> command = readCommand(in);
+                    if (command == null) {
+                        return;
+                    }
+                    StringBuilder reply = new StringBuilder();
+                    String name = command.get(0).toUpperCase();
+                    if ("CLUSTER".equals(name)) {
+                        slotDiscoveries.incrementAndGet();
+                        reply.append("*1\r\n*3\r\n:0\r\n:16383\r\n*3\r\n");
+                        appendBulk(reply, "127.0.0.1");
+                        reply.append(':').append(getPort()).append("\r\n");
+                        appendBulk(reply, "node-1");
+                    } else if ("GET".equals(name)) {
+                        appendBulk(reply, data.get(command.get(1)));
+                    } else if ("PING".equals(name)) {
+                        reply.append("+PONG\r\n");
+                    } else {
+                        reply.append("+OK\r\n");
+                    }
+                    out.write(reply.toString().getBytes(StandardCharsets.UTF_8));
+                    // count the commands which arrived together, before any reply was flushed
+                    pipelined++;
+                    if (in.available() == 0) {
+                        maxPipelined.accumulateAndGet(pipelined, Math::max);
+                        pipelined = 0;
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                // connection closed
+            }
+        }
+
+        private static void appendBulk(StringBuilder reply, String value) {
+            if (value == null) {
+                reply.append("$-1\r\n");
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            reply.append('$').append(bytes.length).append("\r\n").append(value).append("\r\n");
+        }
+
+        private static List<String> readCommand(InputStream in) throws IOException {
+            String header = readLine(in);
+            if (header == null) {
+                return null;
+            }
+            int count = Integer.parseInt(header.substring(1));
+            List<String> command = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = Integer.parseInt(readLine(in).substring(1));
+                byte[] bytes = new byte[length + 2];
+                int read = 0;
+                while (read < bytes.length) {
+                    int n = in.read(bytes, read, bytes.length - read);
+                    if (n < 0) {
+                        return null;
+                    }
+                    read += n;
+                }
+                command.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+            }
+            return command;
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c < 0) {
+                    return null;
+                }
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+            }
+            return line.toString();
+        }
+    }
+}
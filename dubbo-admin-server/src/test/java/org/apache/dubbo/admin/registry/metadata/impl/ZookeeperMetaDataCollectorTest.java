@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.registry.metadata.impl;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.metadata.report.identifier.KeyTypeEnum;
+import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.dubbo.common.constants.CommonConstants.PROVIDER_SIDE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ZookeeperMetaDataCollectorTest {
+
+    private TestingServer zkServer;
+    private CuratorFramework client;
+    private URL url;
+
+    private final MetadataIdentifier small = identifier("SmallService");
+    private final MetadataIdentifier large = identifier("LargeService");
+    private final MetadataIdentifier missing = identifier("MissingService");
+
+    @Before
+    public void setUp() throws Exception {
+        int zkServerPort = NetUtils.getAvailablePort();
+        zkServer = new TestingServer(zkServerPort, true);
+        client = CuratorFrameworkFactory.newClient(zkServer.getConnectString(), new ExponentialBackoffRetry(1000, 3));
+        client.start();
+        write(small, "{\"small\":true}");
+        write(large, "{\"large\":\"" + String.join("", Collections.nCopies(100, "x")) + "\"}");
+        url = URL.valueOf("zookeeper://localhost:" + zkServerPort + "?mirror=true&mirror.lazy-bytes=32");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.close();
+        zkServer.stop();
+    }
+
+    @Test
+    public void testMirroredLookups() throws Exception {
+        ZookeeperMetaDataCollector collector = new ZookeeperMetaDataCollector();
+        collector.setUrl(url);
+        collector.init();
+        awaitMirrored(collector);
+
+        assertEquals("{\"small\":true}", collector.getProviderMetaData(small));
+        assertTrue(collector.getProviderMetaData(large).startsWith("{\"large\""));
+        assertNull(collector.getProviderMetaData(missing));
+        // only the small payload is kept, the large one is read lazily
+        assertEquals("{\"small\":true}".length(), collector.getMirroredBytes());
+
+        Map<MetadataIdentifier, String> batch = collector.getMetaData(Arrays.asList(small, large, missing));
+        assertEquals(3, batch.size());
+        assertNull(batch.get(missing));
+        assertTrue(batch.get(large).startsWith("{\"large\""));
+    }
+
+    @Test
+    public void testMirrorFollowsChanges() throws Exception {
+        ZookeeperMetaDataCollector collector = new ZookeeperMetaDataCollector();
+        collector.setUrl(url);
+        Set<MetadataIdentifier> changed = ConcurrentHashMap.newKeySet();
+        collector.setChangeListener(changed::add);
+        collector.init();
+        awaitMirrored(collector);
+        assertEquals("{\"small\":true}", collector.getProviderMetaData(small));
+
+        write(small, "{\"small\":false}");
+        write(missing, "{}");
+        for (int i = 0; i < 100 && (changed.isEmpty() || collector.getProviderMetaData(missing) == null); i++) {
+            Thread.sleep(50);
+        }
+        assertEquals("{\"small\":false}", collector.getProviderMetaData(small));
+        assertEquals("{}", collector.getProviderMetaData(missing));
+        assertTrue(changed.contains(small));
+    }
+
+    @Test
+    public void testMirrorOverMaxBytesIsClosed() throws Exception {
+        ZookeeperMetaDataCollector collector = new ZookeeperMetaDataCollector();
+        collector.setUrl(url.addParameter("mirror.max-bytes", 512));
+        collector.init();
+        // the nodes alone exceed the max bytes, the lookups read from zookeeper
+        Thread.sleep(1000);
+        assertFalse(collector.isMirrored());
+        assertEquals(0, collector.getMirroredNodeBytes());
+        assertEquals("{\"small\":true}", collector.getProviderMetaData(small));
+        assertNull(collector.getProviderMetaData(missing));
+    }
+
+    private void write(MetadataIdentifier identifier, String content) throws Exception {
+        String path = "/dubbo/" + identifier.getUniqueKey(KeyTypeEnum.PATH);
+        if (client.checkExists().forPath(path) == null) {
+            client.create().creatingParentsIfNeeded().forPath(path, content.getBytes());
+        } else {
+            client.setData().forPath(path, content.getBytes());
+        }
+    }
+
+    private static void awaitMirrored(ZookeeperMetaDataCollector collector) throws InterruptedException {
+        for (int i = 0; i < 100 && !collector.isMirrored(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(collector.isMirrored());
+    }
+
+    private static MetadataIdentifier identifier(String service) {
+        return new MetadataIdentifier("org.apache.dubbo.demo." + service, "1.0.0", null, PROVIDER_SIDE, "demo-provider");
+    }
+}
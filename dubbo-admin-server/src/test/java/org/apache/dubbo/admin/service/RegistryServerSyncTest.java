@@ -31,12 +31,18 @@ import org.mockito.Mock;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -116,4 +122,78 @@ public class RegistryServerSyncTest {
 
         assertTrue(!providerMap.keySet().contains("org.apache.dubbo.provider"));
     }
+
+    @Test
+    public void testNotifyAppliesDifference() {
+        URL url1 = URL.valueOf("dubbo://127.0.0.1:20880/org.apache.dubbo.DemoService?application=demo&category=providers&interface=org.apache.dubbo.DemoService");
+        URL url2 = URL.valueOf("dubbo://127.0.0.2:20880/org.apache.dubbo.DemoService?application=demo&category=providers&interface=org.apache.dubbo.DemoService");
+        URL url3 = URL.valueOf("dubbo://127.0.0.3:20880/org.apache.dubbo.DemoService?application=demo&category=providers&interface=org.apache.dubbo.DemoService");
+
+        registryServerSync.notify(Arrays.asList(url1, url2));
+        assertEquals(2, registryServerSync.getAddedUrls());
+        Map<String, URL> cached = interfaceRegistryCache.get(Constants.PROVIDERS_CATEGORY).get("org.apache.dubbo.DemoService");
+        assertEquals(2, cached.size());
+
+        registryServerSync.notify(Arrays.asList(url2, url3));
+        assertEquals(3, registryServerSync.getAddedUrls());
+        assertEquals(1, registryServerSync.getRemovedUrls());
+        // the previous url map is an immutable snapshot, the change is published as a new map
+        assertFalse(cached.containsValue(url3));
+        cached = interfaceRegistryCache.get(Constants.PROVIDERS_CATEGORY).get("org.apache.dubbo.DemoService");
+        assertEquals(2, cached.size());
+        assertTrue(cached.containsValue(url3));
+        assertTrue(interfaceRegistryCache.findByAddress(Constants.PROVIDERS_CATEGORY, "127.0.0.1").isEmpty());
+    }
+
+    /**
+     * a month of rolling restarts: every restart registers a new url (new pid and timestamp) for the same address,
+     * only the live urls stay cached and indexed, and the dead urls become unreachable.
+     */
+    @Test
+    public void testUrlChurnDoesNotRetainDeadUrls() throws InterruptedException {
+        int services = 20;
+        int instances = 5;
+        int restarts = 30 * 2;
+        URL[][] live = new URL[services][instances];
+        for (int s = 0; s < services; s++) {
+            for (int i = 0; i < instances; i++) {
+                live[s][i] = providerUrl(s, i, 0);
+            }
+            registryServerSync.notify(Arrays.asList(live[s]));
+        }
+        List<WeakReference<URL>> dead = new ArrayList<>();
+        for (int r = 1; r <= restarts; r++) {
+            for (int s = 0; s < services; s++) {
+                for (int i = 0; i < instances; i++) {
+                    dead.add(new WeakReference<>(live[s][i]));
+                    live[s][i] = providerUrl(s, i, r);
+                    registryServerSync.notify(Arrays.asList(live[s]));
+                }
+            }
+        }
+
+        long churn = (long) services * instances * restarts;
+        assertEquals(services * instances + churn, registryServerSync.getAddedUrls());
+        assertEquals(churn, registryServerSync.getRemovedUrls());
+        int cached = interfaceRegistryCache.get(Constants.PROVIDERS_CATEGORY).values().stream().mapToInt(Map::size).sum();
+        assertEquals(services * instances, cached);
+        for (int s = 0; s < services; s++) {
+            assertEquals(instances, interfaceRegistryCache.findByApplication(Constants.PROVIDERS_CATEGORY, "app" + s).size());
+            for (int i = 0; i < instances; i++) {
+                Map<String, URL> urls = interfaceRegistryCache.findByAddress(Constants.PROVIDERS_CATEGORY, "10.0." + s + "." + i + ":20880");
+                assertEquals(Collections.singletonList(live[s][i]), new ArrayList<>(urls.values()));
+            }
+        }
+        for (int i = 0; i < 50 && dead.stream().anyMatch(reference -> reference.get() != null); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, dead.stream().filter(reference -> reference.get() != null).count());
+    }
+
+    private URL providerUrl(int service, int instance, int restart) {
+        return URL.valueOf("dubbo://10.0." + service + "." + instance + ":20880/org.apache.dubbo.Service" + service
+                + "?application=app" + service + "&category=providers&interface=org.apache.dubbo.Service" + service
+                + "&pid=" + (1000 + restart) + "&timestamp=" + (1548127407769L + restart));
+    }
 }
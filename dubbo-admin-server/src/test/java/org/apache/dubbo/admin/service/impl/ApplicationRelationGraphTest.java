@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.model.dto.RelationDTO;
+import org.apache.dubbo.common.URL;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ApplicationRelationGraphTest {
+
+    private static final String SERVICE = "org.apache.dubbo.DemoService";
+
+    private InterfaceRegistryCache interfaceRegistryCache;
+
+    private ApplicationRelationGraph graph;
+
+    @Before
+    public void setUp() {
+        interfaceRegistryCache = new InterfaceRegistryCache();
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, SERVICE,
+                Collections.singletonMap("p1", URL.valueOf("dubbo://127.0.0.1:20880/" + SERVICE + "?application=demo-provider")));
+        graph = new ApplicationRelationGraph();
+        interfaceRegistryCache.addListener(graph);
+    }
+
+    @Test
+    public void testRelationFollowsCache() {
+        RelationDTO relation = graph.getRelation();
+        assertEquals(1, relation.getNodes().size());
+        assertEquals(RelationDTO.PROVIDER_CATEGORIES.getIndex().intValue(), relation.getNodes().get(0).getCategory());
+        assertSame(relation, graph.getRelation());
+
+        long version = graph.getVersion();
+        Map<String, URL> consumers = new HashMap<>();
+        consumers.put("c1", URL.valueOf("consumer://127.0.0.2/" + SERVICE + "?application=demo-consumer"));
+        consumers.put("c2", URL.valueOf("consumer://127.0.0.3/" + SERVICE + "?application=demo-consumer"));
+        interfaceRegistryCache.putService(Constants.CONSUMERS_CATEGORY, SERVICE, consumers);
+        assertNotEquals(version, graph.getVersion());
+
+        relation = graph.getRelation();
+        assertEquals("demo-consumer", relation.getNodes().get(0).getName());
+        assertEquals(Collections.singletonList(new RelationDTO.Link(0, 1)), relation.getLinks());
+
+        // another instance of the same application does not change the graph
+        version = graph.getVersion();
+        consumers.remove("c2");
+        interfaceRegistryCache.putService(Constants.CONSUMERS_CATEGORY, SERVICE, consumers);
+        assertEquals(version, graph.getVersion());
+
+        interfaceRegistryCache.removeService(Constants.CONSUMERS_CATEGORY, SERVICE);
+        relation = graph.getRelation();
+        assertEquals(1, relation.getNodes().size());
+        assertEquals(0, relation.getLinks().size());
+    }
+
+    @Test
+    public void testVersionIsNotReusedAfterRestart() {
+        long boot = System.currentTimeMillis() * 1000;
+        ApplicationRelationGraph restarted = new ApplicationRelationGraph();
+        // a restarted server never answers an etag of the previous run as not modified
+        assertTrue(restarted.getVersion() >= boot);
+    }
+}
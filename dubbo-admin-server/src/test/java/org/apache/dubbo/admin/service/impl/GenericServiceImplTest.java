@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.registry.Registry;
+import org.apache.dubbo.rpc.service.GenericService;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GenericServiceImplTest {
+
+    private final Map<String, GenericService> services = new HashMap<>();
+
+    /**
+     * interface --> destroyer of its reference
+     */
+    private final Map<String, Runnable> created = new HashMap<>();
+
+    private GenericServiceImpl genericService;
+
+    @After
+    public void tearDown() {
+        genericService.destroy();
+    }
+
+    @Test
+    public void testReuse() {
+        genericService = newGenericService(64, 600000);
+        genericService.invoke("group/org.apache.dubbo.demo.DemoService:1.0.0", "sayHello", new String[]{"java.lang.String"}, new Object[]{"a"});
+        genericService.invoke("group/org.apache.dubbo.demo.DemoService:1.0.0", "sayHello", new String[]{"java.lang.String"}, new Object[]{"b"});
+
+        assertEquals(1, created.size());
+        assertEquals(1, genericService.getReferenceStats().hitCount());
+        verify(created.get("org.apache.dubbo.demo.DemoService"), never()).run();
+    }
+
+    @Test
+    public void testEviction() {
+        genericService = newGenericService(1, 600000);
+        genericService.invoke("org.apache.dubbo.demo.DemoService", "sayHello", new String[0], new Object[0]);
+        genericService.invoke("org.apache.dubbo.demo.OtherService", "sayHello", new String[0], new Object[0]);
+
+        verify(created.get("org.apache.dubbo.demo.DemoService")).run();
+        verify(created.get("org.apache.dubbo.demo.OtherService"), never()).run();
+        assertEquals(1, genericService.getReferenceCount());
+    }
+
+    @Test
+    public void testIdleReferenceIsCleanedUp() {
+        genericService = newGenericService(64, 10);
+        genericService.invoke("org.apache.dubbo.demo.DemoService", "sayHello", new String[0], new Object[0]);
+
+        // destroyed without another access of the cache
+        verify(created.get("org.apache.dubbo.demo.DemoService"), timeout(5000)).run();
+    }
+
+    @Test
+    public void testEvictionWaitsForCallsInFlight() throws Exception {
+        genericService = newGenericService(1, 600000);
+        CountDownLatch invoked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        blockOn("org.apache.dubbo.demo.DemoService", invoked, done);
+        Thread caller = new Thread(() -> genericService.invoke("org.apache.dubbo.demo.DemoService", "sayHello", new String[0], new Object[0]));
+        caller.start();
+        assertTrue(invoked.await(5, TimeUnit.SECONDS));
+
+        genericService.invoke("org.apache.dubbo.demo.OtherService", "sayHello", new String[0], new Object[0]);
+        Runnable busy = created.get("org.apache.dubbo.demo.DemoService");
+        verify(busy, never()).run();
+
+        done.countDown();
+        caller.join(5000);
+        verify(busy).run();
+    }
+
+    private void blockOn(String intf, CountDownLatch invoked, CountDownLatch done) {
+        GenericService service = mock(GenericService.class);
+        when(service.$invoke(any(), any(), any())).thenAnswer(invocation -> {
+            invoked.countDown();
+            done.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        services.put(intf, service);
+    }
+
+    private GenericServiceImpl newGenericService(long maxSize, long idleTimeoutMillis) {
+        Registry registry = mock(Registry.class);
+        when(registry.getUrl()).thenReturn(URL.valueOf("zookeeper://127.0.0.1:2181"));
+        GenericServiceImpl service = new GenericServiceImpl(registry) {
+            @Override
+            GenericReference createReference(String intf, String group, String version) {
+                Runnable destroyer = mock(Runnable.class);
+                created.put(intf, destroyer);
+                return new GenericReference(services.computeIfAbsent(intf, key -> mock(GenericService.class)), destroyer);
+            }
+        };
+        ReflectionTestUtils.setField(service, "referenceMaxSize", maxSize);
+        ReflectionTestUtils.setField(service, "referenceIdleTimeoutMillis", idleTimeoutMillis);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.service.RegistryCacheListener;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.metadata.MetadataInfo;
+import org.apache.dubbo.registry.client.DefaultServiceInstance;
+import org.apache.dubbo.registry.client.InstanceAddressURL;
+import org.apache.dubbo.registry.client.metadata.ServiceInstanceMetadataUtils;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InstanceRegistryCacheTest {
+
+    @Test
+    public void testIndexesFollowUpdates() {
+        InstanceRegistryCache instanceRegistryCache = new InstanceRegistryCache();
+        InstanceAddressURL url1 = url("127.0.0.1");
+        InstanceAddressURL url2 = url("127.0.0.2");
+        List<InstanceAddressURL> urls = Arrays.asList(url1, url2);
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.DemoService", urls);
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.OtherService", Collections.singletonList(url1));
+
+        assertEquals(urls, instanceRegistryCache.findProvidersByService("org.apache.dubbo.DemoService").get("demo-provider"));
+        assertEquals(2, instanceRegistryCache.findProvidersByHost("127.0.0.1").size());
+        assertEquals(Collections.singletonList(url2),
+                instanceRegistryCache.findProvidersByHost("127.0.0.2").get("org.apache.dubbo.DemoService").get("demo-provider"));
+
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.DemoService", Collections.singletonList(url1));
+        assertTrue(instanceRegistryCache.findProvidersByHost("127.0.0.2").isEmpty());
+
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.OtherService", Collections.emptyList());
+        assertEquals(Collections.singleton("org.apache.dubbo.DemoService"), instanceRegistryCache.findServices());
+        assertEquals(1, instanceRegistryCache.findProvidersByHost("127.0.0.1").size());
+    }
+
+    @Test
+    public void testInstancesShareRevision() {
+        InstanceRegistryCache instanceRegistryCache = new InstanceRegistryCache();
+        InstanceAddressURL url1 = url("127.0.0.1", "r1");
+        InstanceAddressURL url2 = url("127.0.0.2", "r1");
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.DemoService", Arrays.asList(url1, url2));
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.OtherService", Arrays.asList(url("127.0.0.1", "r1"), url2));
+
+        List<InstanceAddressURL> demoUrls = instanceRegistryCache.findProvidersByService("org.apache.dubbo.DemoService").get("demo-provider");
+        assertSame(demoUrls, instanceRegistryCache.findProvidersByService("org.apache.dubbo.OtherService").get("demo-provider"));
+        assertSame(demoUrls.get(0).getMetadataInfo(), demoUrls.get(1).getMetadataInfo());
+        assertEquals(1, instanceRegistryCache.getInternedCounts().getKey().intValue());
+        assertEquals(2, instanceRegistryCache.getInternedCounts().getValue().intValue());
+
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.DemoService", Collections.emptyList());
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.OtherService", Collections.singletonList(url("127.0.0.2", "r2")));
+        assertEquals(1, instanceRegistryCache.getInternedCounts().getKey().intValue());
+        assertEquals(1, instanceRegistryCache.getInternedCounts().getValue().intValue());
+    }
+
+    @Test
+    public void testChangesAreNotifiedWithoutTheLock() {
+        InstanceRegistryCache instanceRegistryCache = new InstanceRegistryCache();
+        Object lock = ReflectionTestUtils.getField(instanceRegistryCache, "registryCache");
+        InstanceAddressURL url1 = url("127.0.0.1");
+        InstanceAddressURL url2 = url("127.0.0.2");
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.DemoService", Collections.singletonList(url1));
+        List<String> events = new ArrayList<>();
+        List<Boolean> locked = new ArrayList<>();
+        instanceRegistryCache.addListener(new RegistryCacheListener() {
+            @Override
+            public void onUrlAdded(String category, String service, String id, URL url) {
+                locked.add(Thread.holdsLock(lock));
+                events.add("added " + ((InstanceAddressURL) url).getInstance().getHost());
+            }
+
+            @Override
+            public void onUrlRemoved(String category, String service, String id, URL url) {
+                locked.add(Thread.holdsLock(lock));
+                events.add("removed " + ((InstanceAddressURL) url).getInstance().getHost());
+            }
+        });
+        // the cached urls are replayed under the lock
+        assertEquals(Collections.singletonList("added 127.0.0.1"), events);
+        assertEquals(Collections.singletonList(true), locked);
+
+        events.clear();
+        locked.clear();
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.DemoService", Collections.singletonList(url2));
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.DemoService", Collections.emptyList());
+        assertEquals(Arrays.asList("removed 127.0.0.1", "added 127.0.0.2", "removed 127.0.0.2"), events);
+        assertEquals(Arrays.asList(false, false, false), locked);
+    }
+
+    private static InstanceAddressURL url(String host, String revision) {
+        DefaultServiceInstance instance = new DefaultServiceInstance("demo-provider", host, 20880);
+        instance.getMetadata().put(ServiceInstanceMetadataUtils.EXPORTED_SERVICES_REVISION_PROPERTY_NAME, revision);
+        return new InstanceAddressURL(instance, new MetadataInfo("demo-provider", revision, new HashMap<>()));
+    }
+
+    private static InstanceAddressURL url(String host) {
+        InstanceAddressURL url = mock(InstanceAddressURL.class);
+        when(url.getInstance()).thenReturn(new DefaultServiceInstance("demo-provider", host, 20880));
+        return url;
+    }
+}
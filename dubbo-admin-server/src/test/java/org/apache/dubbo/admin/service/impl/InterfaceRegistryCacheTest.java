@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.model.domain.Provider;
+import org.apache.dubbo.admin.service.RegistryCacheListener;
+import org.apache.dubbo.common.URL;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InterfaceRegistryCacheTest {
+
+    private InterfaceRegistryCache interfaceRegistryCache;
+
+    private final URL url1 = URL.valueOf("dubbo://127.0.0.1:20880/org.apache.dubbo.DemoService?application=demo-provider&interface=org.apache.dubbo.DemoService&version=1.0.0");
+
+    private final URL url2 = URL.valueOf("dubbo://127.0.0.2:20880/org.apache.dubbo.DemoService?application=demo-provider&interface=org.apache.dubbo.DemoService&version=2.0.0");
+
+    @Before
+    public void setUp() {
+        interfaceRegistryCache = new InterfaceRegistryCache();
+        Map<String, URL> v1 = new HashMap<>();
+        v1.put("id1", url1);
+        Map<String, URL> v2 = new HashMap<>();
+        v2.put("id2", url2);
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService:1.0.0", v1);
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService:2.0.0", v2);
+    }
+
+    @Test
+    public void testFindByIndexes() {
+        assertEquals(2, interfaceRegistryCache.findByApplication(Constants.PROVIDERS_CATEGORY, "demo-provider").size());
+        assertEquals(Collections.singleton("id1"), interfaceRegistryCache.findByAddress(Constants.PROVIDERS_CATEGORY, "127.0.0.1").keySet());
+        assertEquals(Collections.singleton("id2"), interfaceRegistryCache.findByAddress(Constants.PROVIDERS_CATEGORY, "127.0.0.2:20880").keySet());
+        assertTrue(interfaceRegistryCache.findByAddress(Constants.PROVIDERS_CATEGORY, "127.0.0.2:20881").isEmpty());
+        assertEquals(2, interfaceRegistryCache.findServicesByInterface(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService").size());
+        assertEquals(Collections.singleton("demo-provider"), interfaceRegistryCache.findApplications(Constants.PROVIDERS_CATEGORY));
+        assertTrue(interfaceRegistryCache.findByApplication(Constants.CONSUMERS_CATEGORY, "demo-provider").isEmpty());
+    }
+
+    @Test
+    public void testIndexesFollowUpdates() {
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService:1.0.0", new HashMap<>());
+        assertTrue(interfaceRegistryCache.findByAddress(Constants.PROVIDERS_CATEGORY, "127.0.0.1").isEmpty());
+
+        interfaceRegistryCache.removeService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService:2.0.0");
+        assertTrue(interfaceRegistryCache.findByApplication(Constants.PROVIDERS_CATEGORY, "demo-provider").isEmpty());
+        assertTrue(interfaceRegistryCache.findApplications(Constants.PROVIDERS_CATEGORY).isEmpty());
+        assertEquals(Collections.singleton("org.apache.dubbo.DemoService:1.0.0"),
+                interfaceRegistryCache.findServicesByInterface(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService"));
+    }
+
+    @Test
+    public void testProvidersAreShared() {
+        Map<String, URL> urls = interfaceRegistryCache.findByAddress(Constants.PROVIDERS_CATEGORY, "127.0.0.1");
+        Provider provider = interfaceRegistryCache.toProviders(urls).get(0);
+        assertEquals("org.apache.dubbo.DemoService:1.0.0", provider.getService());
+        assertEquals("demo-provider", provider.getApplication());
+        assertSame(provider, interfaceRegistryCache.toProviders(urls).get(0));
+
+        interfaceRegistryCache.removeService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService:1.0.0");
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService:1.0.0", Collections.singletonMap("id1", url1));
+        assertNotSame(provider, interfaceRegistryCache.toProviders(urls).get(0));
+    }
+
+    @Test
+    public void testSnapshotIsVersioned() {
+        InterfaceRegistrySnapshot snapshot = interfaceRegistryCache.snapshot();
+        assertSame(snapshot, interfaceRegistryCache.snapshot());
+        assertEquals(interfaceRegistryCache.getVersion(), snapshot.getVersion());
+
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService:1.0.0", Collections.singletonMap("id1", url1));
+        assertSame(snapshot, interfaceRegistryCache.snapshot());
+
+        interfaceRegistryCache.removeService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService:2.0.0");
+        InterfaceRegistrySnapshot next = interfaceRegistryCache.snapshot();
+        assertTrue(next.getVersion() > snapshot.getVersion());
+        assertEquals(2, snapshot.get(Constants.PROVIDERS_CATEGORY).size());
+        assertEquals(Collections.singleton("org.apache.dubbo.DemoService:1.0.0"), next.get(Constants.PROVIDERS_CATEGORY).keySet());
+        assertSame(snapshot.get(Constants.PROVIDERS_CATEGORY).get("org.apache.dubbo.DemoService:1.0.0"),
+                next.get(Constants.PROVIDERS_CATEGORY).get("org.apache.dubbo.DemoService:1.0.0"));
+    }
+
+    @Test
+    public void testSnapshotSharesUnchangedCategories() {
+        interfaceRegistryCache.putService(Constants.CONSUMERS_CATEGORY, "org.apache.dubbo.DemoService:1.0.0", Collections.singletonMap("id3", url1));
+        InterfaceRegistrySnapshot snapshot = interfaceRegistryCache.snapshot();
+
+        interfaceRegistryCache.removeService(Constants.CONSUMERS_CATEGORY, "org.apache.dubbo.DemoService:1.0.0");
+        InterfaceRegistrySnapshot next = interfaceRegistryCache.snapshot();
+        assertSame(snapshot.get(Constants.PROVIDERS_CATEGORY), next.get(Constants.PROVIDERS_CATEGORY));
+        assertTrue(next.get(Constants.CONSUMERS_CATEGORY).isEmpty());
+        assertEquals(1, snapshot.get(Constants.CONSUMERS_CATEGORY).size());
+    }
+
+    @Test
+    public void testListenersAreCalledInOrderWithoutTheLock() {
+        List<String> events = new ArrayList<>();
+        List<Boolean> locked = new ArrayList<>();
+        interfaceRegistryCache.addListener(new RegistryCacheListener() {
+            @Override
+            public void onUrlAdded(String category, String service, String id, URL url) {
+                locked.add(Thread.holdsLock(interfaceRegistryCache.getRegistryCache()));
+                events.add("added " + id);
+            }
+
+            @Override
+            public void onUrlRemoved(String category, String service, String id, URL url) {
+                locked.add(Thread.holdsLock(interfaceRegistryCache.getRegistryCache()));
+                events.add("removed " + id);
+            }
+        });
+        // the cached urls are replayed as added under the lock
+        assertEquals(2, events.size());
+        assertEquals(Arrays.asList(true, true), locked);
+
+        events.clear();
+        locked.clear();
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService:1.0.0", Collections.singletonMap("id3", url1));
+        interfaceRegistryCache.removeService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService:2.0.0");
+        assertEquals(Arrays.asList("removed id1", "added id3", "removed id2"), events);
+        assertEquals(Arrays.asList(false, false, false), locked);
+    }
+
+    @Test
+    public void testListenerAddedDuringWritesSeesEachUrlOnce() throws Exception {
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.Service" + i, Collections.singletonMap("written" + i, url1));
+            }
+        });
+        writer.start();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<String> duplicates = Collections.synchronizedList(new ArrayList<>());
+        interfaceRegistryCache.addListener(new RegistryCacheListener() {
+            @Override
+            public void onUrlAdded(String category, String service, String id, URL url) {
+                if (!ids.add(id)) {
+                    duplicates.add(id);
+                }
+            }
+
+            @Override
+            public void onUrlRemoved(String category, String service, String id, URL url) {
+                ids.remove(id);
+            }
+        });
+        writer.join(10000);
+
+        assertTrue(duplicates.isEmpty());
+        assertEquals(2002, ids.size());
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KeywordIndexTest {
+
+    private KeywordIndex index;
+
+    @Before
+    public void setUp() {
+        index = new KeywordIndex();
+        index.add("com.foo.DemoService");
+        index.add("com.foo.DemoService");
+        index.add("com.foo.OrderService:1.0.0");
+        index.add("com.bar.UserService");
+        index.add("org.foo.Util");
+    }
+
+    @Test
+    public void testSearch() {
+        assertEquals(new HashSet<>(Arrays.asList("com.foo.DemoService", "com.foo.OrderService:1.0.0")),
+                index.search("com.foo.*Service"));
+        assertEquals(new HashSet<>(Arrays.asList("com.foo.DemoService", "com.foo.OrderService:1.0.0", "com.bar.UserService")),
+                index.search("*service"));
+        assertEquals(Collections.singleton("org.foo.Util"), index.search("org.fo?"));
+        assertEquals(4, index.search("*").size());
+        assertTrue(index.search("*Missing*").isEmpty());
+        // the dot is not a regex wildcard
+        assertTrue(index.search("com?foo.Demo*x").isEmpty());
+    }
+
+    @Test
+    public void testRemove() {
+        index.remove("com.foo.DemoService");
+        assertEquals(Collections.singleton("com.foo.DemoService"), index.search("*Demo*"));
+        index.remove("com.foo.DemoService");
+        assertTrue(index.search("*Demo*").isEmpty());
+        assertTrue(index.search("com.foo.Dem*").isEmpty());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.model.domain.Provider;
+import org.apache.dubbo.admin.model.dto.MetricDTO;
+import org.apache.dubbo.admin.service.ConsumerService;
+import org.apache.dubbo.admin.service.ProviderService;
+import org.apache.dubbo.metadata.report.identifier.MetadataIdentifier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MetricsCollectorTest {
+
+    private ProviderService providerService;
+
+    private MetricsCollector collector;
+
+    @Before
+    public void setUp() {
+        providerService = mock(ProviderService.class);
+        ConsumerService consumerService = mock(ConsumerService.class);
+        when(providerService.findByAddress("127.0.0.1")).thenReturn(Collections.singletonList(provider("app1")));
+        when(providerService.findByAddress("127.0.0.2")).thenReturn(Collections.singletonList(provider("app2")));
+        when(providerService.findByAddress("127.0.0.3")).thenThrow(new IllegalStateException("broken"));
+        when(providerService.getMetaData(any())).thenAnswer(invocation -> {
+            Map<MetadataIdentifier, String> metaData = new HashMap<>();
+            for (MetadataIdentifier identifier : invocation.<Collection<MetadataIdentifier>>getArgument(0)) {
+                metaData.put(identifier, "app1".equals(identifier.getApplication())
+                        ? "{\"parameters\":{\"metrics.port\":\"20881\",\"metrics.protocol\":\"dubbo\"}}" : "{not json");
+            }
+            return metaData;
+        });
+        MetricsCollector metricsCollector = new MetricsCollector(providerService, consumerService);
+        ReflectionTestUtils.setField(metricsCollector, "threads", 2);
+        ReflectionTestUtils.setField(metricsCollector, "timeoutMillis", 3000);
+        ReflectionTestUtils.setField(metricsCollector, "referenceIdleTimeoutMillis", 60000L);
+        ReflectionTestUtils.setField(metricsCollector, "configExpireMillis", 60000L);
+        collector = spy(metricsCollector);
+        collector.init();
+        doReturn("[{\"metric\":\"qps\"}]").when(collector).invoke(anyString(), any());
+    }
+
+    @After
+    public void tearDown() {
+        collector.destroy();
+    }
+
+    @Test
+    public void testCollectSkipsBadHosts() {
+        Map<String, List<MetricDTO>> metrics = collector.collect(Arrays.asList("127.0.0.1", "127.0.0.2", "127.0.0.3"), "dubbo");
+
+        assertEquals(3, metrics.size());
+        assertTrue(metrics.values().stream().allMatch(list -> list.size() == 1));
+        verify(collector).invoke("dubbo://127.0.0.1:20881?scope=remote&cache=true", "dubbo");
+        verify(collector).invoke("dubbo://127.0.0.2:20880?scope=remote&cache=true", "dubbo");
+        verify(collector).invoke("dubbo://127.0.0.3:20880?scope=remote&cache=true", "dubbo");
+        // the metadata of the hosts are read in one batch, and the configs are cached
+        verify(providerService, times(1)).getMetaData(any());
+        collector.collect(Arrays.asList("127.0.0.1", "127.0.0.2"), "dubbo");
+        verify(providerService, times(1)).getMetaData(any());
+    }
+
+    @Test
+    public void testIdleReferenceIsCleanedUp() {
+        Map<String, Runnable> destroyers = new ConcurrentHashMap<>();
+        MetricsCollector metricsCollector = newCollector(10, url -> group -> "[]", destroyers);
+        try {
+            metricsCollector.invoke("dubbo://127.0.0.1:20880", "dubbo");
+
+            // destroyed without another access of the cache
+            verify(destroyers.get("dubbo://127.0.0.1:20880"), timeout(5000)).run();
+        } finally {
+            metricsCollector.destroy();
+        }
+    }
+
+    @Test
+    public void testEvictionWaitsForCallsInFlight() throws Exception {
+        Map<String, Runnable> destroyers = new ConcurrentHashMap<>();
+        CountDownLatch invoked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        MetricsCollector metricsCollector = newCollector(600000, url -> group -> {
+            invoked.countDown();
+            try {
+                done.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "[]";
+        }, destroyers);
+        Thread caller = new Thread(() -> metricsCollector.invoke("dubbo://127.0.0.1:20880", "dubbo"));
+        caller.start();
+        assertTrue(invoked.await(5, TimeUnit.SECONDS));
+
+        metricsCollector.destroy();
+        Runnable busy = destroyers.get("dubbo://127.0.0.1:20880");
+        verify(busy, never()).run();
+
+        done.countDown();
+        caller.join(5000);
+        verify(busy).run();
+    }
+
+    private MetricsCollector newCollector(long idleTimeoutMillis, Function<String, Function<String, Object>> invokers,
+                                          Map<String, Runnable> destroyers) {
+        MetricsCollector metricsCollector = new MetricsCollector(providerService, mock(ConsumerService.class)) {
+            @Override
+            MetricsReference createReference(String url) {
+                Runnable destroyer = mock(Runnable.class);
+                destroyers.put(url, destroyer);
+                return new MetricsReference(invokers.apply(url), destroyer);
+            }
+        };
+        ReflectionTestUtils.setField(metricsCollector, "threads", 1);
+        ReflectionTestUtils.setField(metricsCollector, "timeoutMillis", 3000);
+        ReflectionTestUtils.setField(metricsCollector, "referenceIdleTimeoutMillis", idleTimeoutMillis);
+        ReflectionTestUtils.setField(metricsCollector, "configExpireMillis", 60000L);
+        metricsCollector.init();
+        return metricsCollector;
+    }
+
+    private static Provider provider(String application) {
+        Provider provider = new Provider();
+        provider.setService("org.apache.dubbo.demo.DemoService");
+        provider.setApplication(application);
+        return provider;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.model.dto.MetricSeriesDTO;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MetricsRingBufferTest {
+
+    @Test
+    public void testQuery() {
+        MetricsRingBuffer buffer = new MetricsRingBuffer(4);
+        for (int i = 0; i < 6; i++) {
+            buffer.add(i * 10, i);
+        }
+        // out of order sample is dropped
+        buffer.add(5, 100);
+
+        MetricSeriesDTO series = new MetricSeriesDTO();
+        buffer.query(0, 100, 100, series);
+        assertArrayEquals(new long[]{20, 30, 40, 50}, series.getTimestamps());
+        assertArrayEquals(new double[]{2, 3, 4, 5}, series.getValues(), 0);
+
+        buffer.query(0, 60, 2, series);
+        assertArrayEquals(new long[]{0, 30}, series.getTimestamps());
+        assertArrayEquals(new double[]{2, 4}, series.getValues(), 0);
+
+        buffer.query(25, 45, 10, series);
+        assertArrayEquals(new long[]{29, 39}, series.getTimestamps());
+        assertArrayEquals(new double[]{3, 4}, series.getValues(), 0);
+    }
+
+    @Test
+    public void testQueryBounds() {
+        MetricsRingBuffer buffer = new MetricsRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            buffer.add(i * 10, i);
+        }
+        MetricSeriesDTO series = new MetricSeriesDTO();
+        // a span overflowing a long still buckets the samples
+        buffer.query(Long.MIN_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE, series);
+        assertArrayEquals(new double[]{1.5}, series.getValues(), 0);
+
+        buffer.query(Long.MIN_VALUE, 40, 1, series);
+        assertArrayEquals(new long[]{Long.MIN_VALUE}, series.getTimestamps());
+        assertArrayEquals(new double[]{1.5}, series.getValues(), 0);
+
+        buffer.query(40, 0, 10, series);
+        assertEquals(0, series.getTimestamps().length);
+        buffer.query(0, 40, 0, series);
+        assertEquals(0, series.getTimestamps().length);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.service.ProviderService;
+import org.apache.dubbo.registry.client.DefaultServiceInstance;
+import org.apache.dubbo.registry.client.InstanceAddressURL;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MetricsScraperTest {
+
+    @Test
+    public void testScrapeHostsOfBothRegistries() {
+        MetricsCollector metricsCollector = mock(MetricsCollector.class);
+        when(metricsCollector.collect(any(), any())).thenReturn(Collections.emptyMap());
+        ProviderService providerService = mock(ProviderService.class);
+        when(providerService.findAddresses()).thenReturn(Arrays.asList("127.0.0.1:20880", "127.0.0.2:20880"));
+        InstanceRegistryCache instanceRegistryCache = new InstanceRegistryCache();
+        InstanceAddressURL url = mock(InstanceAddressURL.class);
+        when(url.getInstance()).thenReturn(new DefaultServiceInstance("demo-provider", "127.0.0.3", 20880));
+        instanceRegistryCache.putProviders("demo-provider", "org.apache.dubbo.DemoService", Collections.singletonList(url));
+        MetricsScraper scraper = new MetricsScraper(metricsCollector, providerService, instanceRegistryCache);
+        ReflectionTestUtils.setField(scraper, "slices", 1);
+
+        scraper.scrape();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> targets = ArgumentCaptor.forClass(Collection.class);
+        verify(metricsCollector).collect(targets.capture(), eq(null));
+        assertEquals(new HashSet<>(Arrays.asList("127.0.0.1", "127.0.0.2", "127.0.0.3")), new HashSet<>(targets.getValue()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroCapacityIsRejected() {
+        MetricsScraper scraper = new MetricsScraper(mock(MetricsCollector.class), mock(ProviderService.class), new InstanceRegistryCache());
+        ReflectionTestUtils.setField(scraper, "enabled", true);
+        ReflectionTestUtils.setField(scraper, "slices", 5);
+        ReflectionTestUtils.setField(scraper, "capacity", 0);
+        scraper.init();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.model.domain.RegistrySource;
+import org.apache.dubbo.admin.model.dto.RegistryChangeDTO;
+import org.apache.dubbo.common.URL;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RegistryChangeFeedTest {
+
+    private static final String SERVICE = "org.apache.dubbo.demo.DemoService";
+
+    private final URL url1 = URL.valueOf("dubbo://127.0.0.1:20880/" + SERVICE + "?application=demo-provider");
+
+    private final URL url2 = URL.valueOf("dubbo://127.0.0.2:20880/" + SERVICE + "?application=demo-provider");
+
+    private InterfaceRegistryCache interfaceRegistryCache;
+
+    private RegistryChangeFeed feed;
+
+    @Before
+    public void setUp() {
+        interfaceRegistryCache = new InterfaceRegistryCache();
+        feed = new RegistryChangeFeed(interfaceRegistryCache, new InstanceRegistryCache());
+        ReflectionTestUtils.setField(feed, "capacity", 4);
+        ReflectionTestUtils.setField(feed, "flushMillis", 60000L);
+        ReflectionTestUtils.setField(feed, "timeoutMillis", 60000L);
+        feed.init();
+    }
+
+    @After
+    public void tearDown() {
+        feed.destroy();
+    }
+
+    @Test
+    public void testChangesAreCoalesced() {
+        long start = feed.getSequence();
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, SERVICE, Collections.singletonMap("id1", url1));
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, SERVICE, Collections.singletonMap("id2", url2));
+
+        List<RegistryChangeDTO> changes = feed.since(start);
+        assertEquals(2, changes.size());
+        assertEquals(RegistryChangeDTO.REMOVED, changes.get(0).getType());
+        assertEquals("127.0.0.1:20880", changes.get(0).getAddress());
+        assertEquals(RegistrySource.INTERFACE, changes.get(0).getRegistrySource());
+        assertEquals("demo-provider", changes.get(0).getApplication());
+        assertEquals(RegistryChangeDTO.ADDED, changes.get(1).getType());
+        assertEquals("127.0.0.2:20880", changes.get(1).getAddress());
+        assertEquals(start + 3, changes.get(1).getSequence());
+
+        assertTrue(feed.since(feed.getSequence()).isEmpty());
+        assertEquals(1, feed.since(start + 2).size());
+    }
+
+    @Test
+    public void testSameAddressUpdateStaysAdded() {
+        long start = feed.getSequence();
+        URL updated = url1.addParameter("timeout", "2000");
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, SERVICE, Collections.singletonMap("id1", url1));
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, SERVICE, Collections.singletonMap("id1'", updated));
+
+        List<RegistryChangeDTO> changes = feed.since(start);
+        assertEquals(1, changes.size());
+        assertEquals(RegistryChangeDTO.ADDED, changes.get(0).getType());
+        assertEquals("127.0.0.1:20880", changes.get(0).getAddress());
+    }
+
+    @Test
+    public void testResetWhenBehindTheLog() {
+        long start = feed.getSequence();
+        for (int i = 0; i < 3; i++) {
+            interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, SERVICE, Collections.singletonMap("id1", url1));
+            interfaceRegistryCache.removeService(Constants.PROVIDERS_CATEGORY, SERVICE);
+        }
+        assertNull(feed.since(start));
+        assertEquals(1, feed.since(start + 2).size());
+        assertNull(feed.since(feed.getSequence() + 1));
+        assertNull(feed.since(0));
+    }
+}
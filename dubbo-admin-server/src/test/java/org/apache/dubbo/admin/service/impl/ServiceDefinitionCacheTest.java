@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.model.domain.MethodMetadata;
+import org.apache.dubbo.metadata.definition.ServiceDefinitionBuilder;
+import org.apache.dubbo.metadata.definition.model.FullServiceDefinition;
+
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ServiceDefinitionCacheTest {
+
+    private ServiceDefinitionCache cache;
+
+    private String metadata;
+
+    @Before
+    public void setUp() {
+        cache = new ServiceDefinitionCache();
+        ReflectionTestUtils.setField(cache, "maxSize", 10L);
+        cache.init();
+        metadata = new Gson().toJson(ServiceDefinitionBuilder.buildFullDefinition(DemoService.class, Collections.emptyMap()));
+    }
+
+    @Test
+    public void testDefinitionIsParsedOnce() {
+        Object definition = cache.getDefinition(metadata, false);
+        assertTrue(definition instanceof FullServiceDefinition);
+        assertSame(definition, cache.getDefinition(new String(metadata), false));
+        assertNotSame(definition, cache.getDefinition(metadata, true));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testMethodMetadataIsIndexed() {
+        MethodMetadata methodMetadata = cache.getMethodMetadata(metadata, false, "sayHello~java.lang.String;int");
+        assertEquals("sayHello~java.lang.String;int", methodMetadata.getSignature());
+        assertEquals("java.lang.String", methodMetadata.getReturnType());
+        assertEquals(2, methodMetadata.getParameterTypes().size());
+        assertSame(methodMetadata, cache.getMethodMetadata(metadata, false, "sayHello~java.lang.String;int"));
+        assertNull(cache.getMethodMetadata(metadata, false, "sayHello~java.lang.String"));
+    }
+
+    public interface DemoService {
+
+        String sayHello(String name, int times);
+    }
+}
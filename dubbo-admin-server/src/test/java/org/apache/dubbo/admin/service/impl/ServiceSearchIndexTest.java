@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.admin.service.impl;
+
+import org.apache.dubbo.admin.common.util.Constants;
+import org.apache.dubbo.admin.model.domain.RegistrySource;
+import org.apache.dubbo.admin.model.dto.ServiceDTO;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.registry.client.DefaultServiceInstance;
+import org.apache.dubbo.registry.client.InstanceAddressURL;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ServiceSearchIndexTest {
+
+    private InterfaceRegistryCache interfaceRegistryCache;
+
+    private InstanceRegistryCache instanceRegistryCache;
+
+    private ServiceSearchIndex serviceSearchIndex;
+
+    @Before
+    public void setUp() {
+        interfaceRegistryCache = new InterfaceRegistryCache();
+        instanceRegistryCache = new InstanceRegistryCache();
+        serviceSearchIndex = new ServiceSearchIndex();
+        ReflectionTestUtils.setField(serviceSearchIndex, "interfaceRegistryCache", interfaceRegistryCache);
+        ReflectionTestUtils.setField(serviceSearchIndex, "instanceRegistryCache", instanceRegistryCache);
+        serviceSearchIndex.init();
+
+        Map<String, URL> urls = new HashMap<>();
+        urls.put("id1", URL.valueOf("dubbo://127.0.0.1:20880/org.apache.dubbo.DemoService?application=demo-provider"));
+        urls.put("id2", URL.valueOf("dubbo://127.0.0.2:20880/org.apache.dubbo.DemoService?application=demo-provider"));
+        interfaceRegistryCache.putService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService", urls);
+        instanceRegistryCache.putProviders("order-provider", "org.apache.dubbo.OrderService",
+                Arrays.asList(url("order-provider", "127.0.0.3"), url("order-provider", "127.0.0.4")));
+    }
+
+    @Test
+    public void testSortedServicesOfBothRegistries() {
+        assertEquals(Arrays.asList(dto("demo-provider", "org.apache.dubbo.DemoService", RegistrySource.INTERFACE),
+                dto("order-provider", "org.apache.dubbo.OrderService", RegistrySource.INSTANCE)),
+                serviceSearchIndex.getSortedServiceDTOs());
+        assertEquals(serviceSearchIndex.getSortedServiceDTOs(), serviceSearchIndex.searchServiceDTOs(Constants.APPLICATION, "*"));
+    }
+
+    @Test
+    public void testSearchServiceDTOs() {
+        assertEquals(Collections.singletonList(dto("order-provider", "org.apache.dubbo.OrderService", RegistrySource.INSTANCE)),
+                serviceSearchIndex.searchServiceDTOs(Constants.SERVICE, "*order*"));
+        assertEquals(Collections.singletonList(dto("demo-provider", "org.apache.dubbo.DemoService", RegistrySource.INTERFACE)),
+                serviceSearchIndex.searchServiceDTOs(Constants.APPLICATION, "demo*"));
+        assertEquals(Collections.singletonList(dto("order-provider", "org.apache.dubbo.OrderService", RegistrySource.INSTANCE)),
+                serviceSearchIndex.searchServiceDTOs(Constants.IP, "127.0.0.4*"));
+        assertEquals(2, serviceSearchIndex.searchServiceDTOs(Constants.IP, "127.0.0.*").size());
+    }
+
+    @Test
+    public void testRemovedServicesAreDropped() {
+        instanceRegistryCache.putProviders("order-provider", "org.apache.dubbo.OrderService", Collections.singletonList(url("order-provider", "127.0.0.3")));
+        assertTrue(serviceSearchIndex.searchServiceDTOs(Constants.IP, "127.0.0.4*").isEmpty());
+        assertEquals(1, serviceSearchIndex.searchServiceDTOs(Constants.SERVICE, "*order*").size());
+
+        instanceRegistryCache.putProviders("order-provider", "org.apache.dubbo.OrderService", Collections.emptyList());
+        interfaceRegistryCache.removeService(Constants.PROVIDERS_CATEGORY, "org.apache.dubbo.DemoService");
+        List<ServiceDTO> serviceDTOs = serviceSearchIndex.getSortedServiceDTOs();
+        assertTrue(serviceDTOs.isEmpty());
+        assertTrue(serviceSearchIndex.searchServiceDTOs(Constants.SERVICE, "*").isEmpty());
+        assertTrue(serviceSearchIndex.searchServiceDTOs(Constants.APPLICATION, "*provider").isEmpty());
+    }
+
+    private static ServiceDTO dto(String application, String service, RegistrySource registrySource) {
+        return ServiceSearchIndex.toServiceDTO(application, service, registrySource);
+    }
+
+    private static InstanceAddressURL url(String application, String host) {
+        InstanceAddressURL url = mock(InstanceAddressURL.class);
+        when(url.getInstance()).thenReturn(new DefaultServiceInstance(application, host, 20880));
+        when(url.getAddress()).thenReturn(host + ":20880");
+        return url;
+    }
+}